@@ -0,0 +1,109 @@
+package com.example.myapplication.data.local;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.myapplication.common.utils.GeoCell;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verifies that the location lookups in WeatherDao are served by the
+ * (cell, cachedAt) index rather than a full scan of weather_cache.
+ * The SQL is the DAO's own, taken from the constants its @Query annotations use.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WeatherDaoQueryPlanTest {
+
+    private static final String INDEX_NAME = "index_weather_cache_cell_cachedAt";
+    private static final double LAT = 23.2599;
+    private static final double LON = 77.4126;
+
+    private WeatherDatabase database;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = Room.inMemoryDatabaseBuilder(context, WeatherDatabase.class).build();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void cachedWeatherByLocation_usesCellIndex() {
+        List<Long> cells = GeoCell.neighbourhood(LAT, LON);
+        String sql = positional(WeatherDao.CACHED_WEATHER_IN_CELLS, cells.size());
+
+        assertUsesIndex(explain(sql, args(cells, LAT, LON)));
+    }
+
+    @Test
+    public void locationWeatherSince_usesCellIndex() {
+        List<Long> cells = GeoCell.neighbourhood(LAT, LON);
+        String sql = positional(WeatherDao.WEATHER_IN_CELLS_SINCE, cells.size());
+
+        assertUsesIndex(explain(sql, args(cells, 0L, LAT, LON)));
+    }
+
+    private void assertUsesIndex(List<String> plan) {
+        boolean usesIndex = false;
+        for (String detail : plan) {
+            if (detail.contains(INDEX_NAME)) {
+                usesIndex = true;
+            }
+            assertFalse("Full table scan in plan: " + plan,
+                    detail.startsWith("SCAN") && detail.contains("weather_cache") && !detail.contains("INDEX"));
+        }
+        assertTrue("Index not used in plan: " + plan, usesIndex);
+    }
+
+    private List<String> explain(String sql, Object[] args) {
+        List<String> plan = new ArrayList<>();
+        try (Cursor cursor = database.getOpenHelper().getReadableDatabase()
+                .query("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detailColumn = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.add(cursor.getString(detailColumn));
+            }
+        }
+        return plan;
+    }
+
+    // Room's named parameters as positional ones, with the :cells list expanded.
+    // Arguments are bound in the order the parameters appear
+    private static String positional(String roomSql, int cellCount) {
+        return roomSql.replace(":cells", placeholders(cellCount)).replaceAll(":\\w+", "?");
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(i == 0 ? "?" : ", ?");
+        }
+        return builder.toString();
+    }
+
+    private static Object[] args(List<Long> cells, Object... rest) {
+        List<Object> args = new ArrayList<>(cells);
+        for (Object arg : rest) {
+            args.add(arg);
+        }
+        return args.toArray();
+    }
+}
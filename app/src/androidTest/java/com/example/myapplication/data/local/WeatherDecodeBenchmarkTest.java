@@ -0,0 +1,177 @@
+package com.example.myapplication.data.local;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.myapplication.data.local.converter.WeatherTypeConverter;
+import com.example.myapplication.data.model.Clouds;
+import com.example.myapplication.data.model.Coord;
+import com.example.myapplication.data.model.Main;
+import com.example.myapplication.data.model.Sys;
+import com.example.myapplication.data.model.Weather;
+import com.example.myapplication.data.model.WeatherResponse;
+import com.example.myapplication.data.model.Wind;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compares the per-row decode cost of the v1 JSON column layout against the
+ * flattened v2 layout. Results are logged under the "WeatherDecodeBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WeatherDecodeBenchmarkTest {
+
+    private static final String TAG = "WeatherDecodeBenchmark";
+    private static final int ROWS = 2000;
+    private static final int ROUNDS = 5;
+
+    private WeatherDatabase database;
+    private WeatherDao weatherDao;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = Room.inMemoryDatabaseBuilder(context, WeatherDatabase.class).build();
+        weatherDao = database.weatherDao();
+
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        db.execSQL("CREATE TABLE weather_cache_v1 (dbId INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                "coord TEXT, weather TEXT, main TEXT, wind TEXT, clouds TEXT, sys TEXT, cachedAt INTEGER NOT NULL)");
+
+        WeatherResponse response = sampleResponse();
+        long now = System.currentTimeMillis();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < ROWS; i++) {
+                ContentValues values = new ContentValues();
+                values.put("coord", WeatherTypeConverter.fromCoord(response.coord));
+                values.put("weather", WeatherTypeConverter.fromWeatherList(response.weather));
+                values.put("main", WeatherTypeConverter.fromMain(response.main));
+                values.put("wind", WeatherTypeConverter.fromWind(response.wind));
+                values.put("clouds", WeatherTypeConverter.fromClouds(response.clouds));
+                values.put("sys", WeatherTypeConverter.fromSys(response.sys));
+                values.put("cachedAt", now - i);
+                db.insert("weather_cache_v1", SQLiteDatabase.CONFLICT_REPLACE, values);
+
+                WeatherEntity entity = new WeatherEntity(response);
+                entity.cachedAt = now - i;
+                weatherDao.insertWeatherData(entity);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void compareRowDecodeCost() {
+        // Warm up both paths so class loading and statement compilation are not measured
+        decodeV1();
+        decodeV2();
+
+        long v1Nanos = Long.MAX_VALUE;
+        long v2Nanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            assertEquals(ROWS, decodeV1());
+            v1Nanos = Math.min(v1Nanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            assertEquals(ROWS, decodeV2());
+            v2Nanos = Math.min(v2Nanos, System.nanoTime() - start);
+        }
+
+        Log.i(TAG, String.format("v1 JSON columns: %d ns/row, v2 typed columns: %d ns/row",
+                v1Nanos / ROWS, v2Nanos / ROWS));
+    }
+
+    private int decodeV1() {
+        int decoded = 0;
+        SupportSQLiteDatabase db = database.getOpenHelper().getReadableDatabase();
+        try (Cursor cursor = db.query("SELECT coord, weather, main, wind, clouds, sys FROM weather_cache_v1")) {
+            while (cursor.moveToNext()) {
+                WeatherResponse response = new WeatherResponse();
+                response.coord = WeatherTypeConverter.toCoord(cursor.getString(0));
+                response.weather = WeatherTypeConverter.toWeatherList(cursor.getString(1));
+                response.main = WeatherTypeConverter.toMain(cursor.getString(2));
+                response.wind = WeatherTypeConverter.toWind(cursor.getString(3));
+                response.clouds = WeatherTypeConverter.toClouds(cursor.getString(4));
+                response.sys = WeatherTypeConverter.toSys(cursor.getString(5));
+                decoded++;
+            }
+        }
+        return decoded;
+    }
+
+    private int decodeV2() {
+        List<WeatherWithConditions> records = weatherDao.getWeatherDataSince(0);
+        for (WeatherWithConditions record : records) {
+            record.toWeatherResponse();
+        }
+        return records.size();
+    }
+
+    private static WeatherResponse sampleResponse() {
+        WeatherResponse response = new WeatherResponse();
+        response.id = 1275841;
+        response.name = "Bhopal";
+        response.base = "stations";
+        response.visibility = 6000;
+        response.dt = 1720000000L;
+        response.timezone = 19800;
+        response.cod = 200;
+
+        response.coord = new Coord();
+        response.coord.lat = 23.2599;
+        response.coord.lon = 77.4126;
+
+        Weather weather = new Weather();
+        weather.id = 721;
+        weather.main = "Haze";
+        weather.description = "haze";
+        weather.icon = "50d";
+        response.weather = Collections.singletonList(weather);
+
+        response.main = new Main();
+        response.main.temp = 31.2;
+        response.main.feels_like = 34.5;
+        response.main.temp_min = 30.1;
+        response.main.temp_max = 32.4;
+        response.main.pressure = 1004;
+        response.main.humidity = 62;
+
+        response.wind = new Wind();
+        response.wind.speed = 4.1;
+        response.wind.deg = 250;
+
+        response.clouds = new Clouds();
+        response.clouds.all = 40;
+
+        response.sys = new Sys();
+        response.sys.country = "IN";
+        response.sys.sunrise = 1719963000L;
+        response.sys.sunset = 1720011600L;
+        return response;
+    }
+}
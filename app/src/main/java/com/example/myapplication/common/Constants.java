@@ -8,4 +8,63 @@ public class Constants {
     public static final String UNITS_KELVIN = "standard";
     public static final double DEFAULT_LATITUDE = 23.259933  ;
     public static final double DEFAULT_LONGITUDE = 77.412613 ;
+
+    // In-memory current weather cache in WeatherRepositoryImpl
+    public static final long WEATHER_MEMORY_CACHE_TTL_MS = 10 * 60 * 1000L;
+    public static final int WEATHER_MEMORY_CACHE_MAX_ENTRIES = 32;
+
+    // Cached rows younger than this are served without revalidating over the network
+    public static final long CACHE_FRESHNESS_WINDOW_MS = 15 * 60 * 1000L;
+
+    // OkHttp disk cache, max age applies when the API sends weak cache headers
+    public static final String HTTP_CACHE_DIRECTORY = "http_cache";
+    public static final long HTTP_CACHE_SIZE_BYTES = 10 * 1024 * 1024L;
+    public static final long HTTP_CACHE_MAX_AGE_SECONDS = 10 * 60;
+
+    // Share of calls body-logged when BuildConfig.HTTP_BODY_LOGGING is on
+    public static final double HTTP_BODY_LOG_SAMPLE_RATE = 0.1;
+
+    // Write-behind buffer in front of WeatherDao, see WeatherWriteBuffer
+    public static final long WEATHER_WRITE_BUFFER_WINDOW_MS = 500;
+    public static final int WEATHER_WRITE_BUFFER_MAX_BATCH = 50;
+
+    // OkHttp dispatcher bound, also caps how many saved locations a sync fetches at once
+    public static final int HTTP_MAX_REQUESTS_PER_HOST = 4;
+    public static final long SYNC_FETCH_TIMEOUT_MS = 60 * 1000L;
+
+    // Adaptive periodic sync, see SyncIntervalPolicy. The budget counts API requests per day
+    public static final long SYNC_INTERVAL_MIN_MINUTES = 60;
+    public static final long SYNC_INTERVAL_MAX_MINUTES = 12 * 60;
+    public static final long SYNC_INTERVAL_DEFAULT_MINUTES = 6 * 60;
+    public static final int SYNC_DAILY_CALL_BUDGET = 48;
+    public static final long SYNC_VOLATILITY_WINDOW_MS = 24 * 60 * 60 * 1000L;
+
+    // Sync triggers, see SyncCoordinator
+    public static final long SYNC_LOCATION_DEBOUNCE_MS = 10 * 1000L;
+    public static final long SYNC_MANUAL_DEDUPE_MS = 60 * 1000L;
+    public static final long SYNC_PERIODIC_FRESHNESS_MAX_MS = 6 * 60 * 60 * 1000L;
+
+    // Most city ids OpenWeather accepts in one /group request
+    public static final int OPENWEATHER_GROUP_MAX_IDS = 20;
+
+    // A stored forecast run is reused until it is this old, the API updates every 3h
+    public static final long FORECAST_REFRESH_INTERVAL_MS = 3 * 60 * 60 * 1000L;
+
+    // History compaction, raw rows become hourly aggregates, hourly become daily
+    public static final int RAW_HISTORY_RETENTION_DAYS = 30;
+    public static final int HOURLY_HISTORY_RETENTION_DAYS = 90;
+    public static final int COMPACTION_BATCH_SIZE = 500;
+    public static final String COMPACTION_PREFS_NAME = "weather_compaction_prefs";
+    // Screens start a compaction at most this often, the sync worker runs one every sync
+    public static final long COMPACTION_MIN_INTERVAL_MS = 6 * 60 * 60 * 1000L;
+
+    // Shared executor tiers, see ExecutorModule. Tasks slower than this end to end are logged
+    public static final int DB_EXECUTOR_THREADS = 2;
+    public static final int DB_EXECUTOR_QUEUE_CAPACITY = 128;
+    public static final int NETWORK_EXECUTOR_THREADS = 2;
+    public static final int NETWORK_EXECUTOR_QUEUE_CAPACITY = 32;
+    public static final long EXECUTOR_SLOW_TASK_MS = 2000;
+
+    // Table observing streams wait for writes to pause this long before re-querying
+    public static final long DB_STREAM_DEBOUNCE_MS = 300;
 }
@@ -0,0 +1,18 @@
+package com.example.myapplication.common;
+
+/**
+ * How a repository read balances cached data against the network.
+ */
+public enum FetchPolicy {
+    /**
+     * Serve memory or database data first. Rows inside the freshness window are
+     * returned as SUCCESS with no network call, older rows are emitted as STALE
+     * and revalidated in the background.
+     */
+    CACHE_THEN_NETWORK,
+
+    /**
+     * Skip cached data and always go to the network, e.g. for an explicit refresh.
+     */
+    NETWORK_ONLY
+}
@@ -7,18 +7,26 @@ public class Resource<T> {
     private final T data;
     private final String message;
     private final Throwable throwable;
+    private final long dataAgeMillis;
 
     public enum Status {
         SUCCESS,
         ERROR,
-        LOADING
+        LOADING,
+        // Cached data shown while a fresher copy is being fetched
+        STALE
     }
 
     private Resource(Status status, T data, String message, Throwable throwable) {
+        this(status, data, message, throwable, 0);
+    }
+
+    private Resource(Status status, T data, String message, Throwable throwable, long dataAgeMillis) {
         this.status = status;
         this.data = data;
         this.message = message;
         this.throwable = throwable;
+        this.dataAgeMillis = dataAgeMillis;
     }
 
     public static <T> Resource<T> success(T data) {
@@ -41,6 +49,10 @@ public class Resource<T> {
         return new Resource<>(Status.LOADING, null, null, null);
     }
 
+    public static <T> Resource<T> stale(T data, long dataAgeMillis) {
+        return new Resource<>(Status.STALE, data, null, null, dataAgeMillis);
+    }
+
     public Status getStatus() {
         return status;
     }
@@ -57,6 +69,10 @@ public class Resource<T> {
         return throwable;
     }
 
+    public long getDataAgeMillis() {
+        return dataAgeMillis;
+    }
+
     public boolean isSuccess() {
         return status == Status.SUCCESS;
     }
@@ -69,6 +85,10 @@ public class Resource<T> {
         return status == Status.LOADING;
     }
 
+    public boolean isStale() {
+        return status == Status.STALE;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
@@ -83,6 +103,9 @@ public class Resource<T> {
         if (status != resource.status) {
             return false;
         }
+        if (dataAgeMillis != resource.dataAgeMillis) {
+            return false;
+        }
         if (data != null ? !data.equals(resource.data) : resource.data != null) {
             return false;
         }
@@ -94,6 +117,7 @@ public class Resource<T> {
         int result = status != null ? status.hashCode() : 0;
         result = 31 * result + (data != null ? data.hashCode() : 0);
         result = 31 * result + (message != null ? message.hashCode() : 0);
+        result = 31 * result + (int) (dataAgeMillis ^ (dataAgeMillis >>> 32));
         return result;
     }
 
@@ -103,6 +127,7 @@ public class Resource<T> {
                 "status=" + status +
                 ", data=" + data +
                 ", message='" + message + '\'' +
+                ", dataAgeMillis=" + dataAgeMillis +
                 '}';
     }
 }
\ No newline at end of file
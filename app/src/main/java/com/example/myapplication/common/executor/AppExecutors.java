@@ -0,0 +1,56 @@
+package com.example.myapplication.common.executor;
+
+import android.util.Log;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * The app-wide executor tiers, one instance provided by ExecutorModule:
+ * database work (Room reads and writes, compaction) and network post-processing
+ * (blocking fetches, parsing response bodies while they stream in), plus one timer thread
+ * for delayed work. Timer tasks must only hand off to a tier, never do the work themselves.
+ * There is no CPU tier: nothing in the app is CPU bound on its own, parsing is bound to
+ * the network stream and compaction to its database transaction.
+ *
+ * Inject the tier you need with its qualifier, e.g. {@code @DatabaseExecutor Executor}.
+ * Do not create pools or raw threads in the data layer.
+ */
+public class AppExecutors {
+    private static final String TAG = "AppExecutors";
+
+    private final InstrumentedExecutor database;
+    private final InstrumentedExecutor network;
+    private final ScheduledExecutorService timer;
+
+    public AppExecutors(InstrumentedExecutor database,
+                        InstrumentedExecutor network,
+                        ScheduledExecutorService timer) {
+        this.database = database;
+        this.network = network;
+        this.timer = timer;
+    }
+
+    public InstrumentedExecutor database() {
+        return database;
+    }
+
+    public InstrumentedExecutor network() {
+        return network;
+    }
+
+    public ScheduledExecutorService timer() {
+        return timer;
+    }
+
+    public List<InstrumentedExecutor.Metrics> metrics() {
+        return Arrays.asList(database.snapshot(), network.snapshot());
+    }
+
+    public void logMetrics() {
+        for (InstrumentedExecutor.Metrics metrics : metrics()) {
+            Log.d(TAG, metrics.toString());
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.myapplication.common.executor;
+
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed size pool with a bounded queue, named threads and basic metrics: queue depth
+ * (current and peak), time tasks spend waiting in the queue and running, how often
+ * the queue overflowed and how many tasks were rejected. One instance per tier, see
+ * AppExecutors.
+ *
+ * Backpressure: when the queue is full, tasks go to one extra overflow thread with a
+ * queue of the same capacity, so a burst from the main thread neither blocks it nor
+ * runs there. When that is full as well, a background submitter runs the task itself,
+ * which slows it down, and a main thread submitter gets a RejectedExecutionException.
+ * Nothing is dropped silently: callers on the main thread must handle the rejection.
+ */
+public class InstrumentedExecutor extends ThreadPoolExecutor {
+    private static final String TAG = "InstrumentedExecutor";
+
+    private final String name;
+    private final int queueCapacity;
+    private final long slowTaskMillis;
+
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong finishedCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    // Created on the first overflow
+    private volatile ExecutorService overflow;
+
+    public InstrumentedExecutor(String name, int threads, int queueCapacity, long slowTaskMillis) {
+        super(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                namedThreads(name),
+                new OverflowPolicy());
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.slowTaskMillis = slowTaskMillis;
+        // Idle tiers should not pin threads for the whole process lifetime
+        allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(new TimedTask(command));
+        int depth = getQueue().size();
+        int peak;
+        do {
+            peak = peakQueueDepth.get();
+        } while (depth > peak && !peakQueueDepth.compareAndSet(peak, depth));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Metrics snapshot() {
+        return new Metrics(name, getQueue().size(), peakQueueDepth.get(), getActiveCount(),
+                finishedCount.get(), overflowCount.get(), rejectedCount.get(),
+                totalWaitNanos.get(), maxWaitNanos.get(), totalRunNanos.get(), maxRunNanos.get());
+    }
+
+    private void record(long queuedAt, long startedAt, long finishedAt) {
+        long wait = startedAt - queuedAt;
+        long run = finishedAt - startedAt;
+        finishedCount.incrementAndGet();
+        totalWaitNanos.addAndGet(wait);
+        totalRunNanos.addAndGet(run);
+        updateMax(maxWaitNanos, wait);
+        updateMax(maxRunNanos, run);
+
+        if (TimeUnit.NANOSECONDS.toMillis(wait + run) > slowTaskMillis) {
+            Log.w(TAG, String.format(Locale.US, "%s: slow task, waited %d ms, ran %d ms, %d queued",
+                    name, TimeUnit.NANOSECONDS.toMillis(wait), TimeUnit.NANOSECONDS.toMillis(run),
+                    getQueue().size()));
+        }
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        do {
+            current = max.get();
+        } while (value > current && !max.compareAndSet(current, value));
+    }
+
+    private static ThreadFactory namedThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private ExecutorService overflowExecutor() {
+        ExecutorService executor = overflow;
+        if (executor == null) {
+            synchronized (this) {
+                executor = overflow;
+                if (executor == null) {
+                    // Single thread, so overflow never turns into one thread per task. Its
+                    // queue is bounded too and rejects once full, see OverflowPolicy
+                    executor = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<>(queueCapacity), namedThreads(name + "-overflow"));
+                    overflow = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        ExecutorService executor = overflow;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private static final class OverflowPolicy implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor pool) {
+            InstrumentedExecutor executor = (InstrumentedExecutor) pool;
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException(executor.name + " is shut down");
+            }
+
+            executor.overflowCount.incrementAndGet();
+            try {
+                executor.overflowExecutor().execute(runnable);
+                Log.w(TAG, executor.name + ": queue full, task moved to the overflow thread");
+                return;
+            } catch (RejectedExecutionException e) {
+                // The overflow queue is full too, fall through
+            }
+
+            if (Looper.myLooper() != Looper.getMainLooper()) {
+                Log.w(TAG, executor.name + ": queue and overflow full, running on " + Thread.currentThread().getName());
+                runnable.run();
+                return;
+            }
+            executor.rejectedCount.incrementAndGet();
+            Log.e(TAG, executor.name + ": queue and overflow full, task rejected");
+            throw new RejectedExecutionException(executor.name + ": queue and overflow full");
+        }
+    }
+
+    private final class TimedTask implements Runnable {
+        private final Runnable delegate;
+        private final long queuedAt = System.nanoTime();
+
+        TimedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            long startedAt = System.nanoTime();
+            try {
+                delegate.run();
+            } finally {
+                record(queuedAt, startedAt, System.nanoTime());
+            }
+        }
+    }
+
+    public static final class Metrics {
+        public final String name;
+        public final int queueDepth;
+        public final int peakQueueDepth;
+        public final int activeThreads;
+        public final long finishedTasks;
+        public final long overflows;
+        public final long rejected;
+        public final long totalWaitNanos;
+        public final long maxWaitNanos;
+        public final long totalRunNanos;
+        public final long maxRunNanos;
+
+        Metrics(String name, int queueDepth, int peakQueueDepth, int activeThreads,
+                long finishedTasks, long overflows, long rejected,
+                long totalWaitNanos, long maxWaitNanos, long totalRunNanos, long maxRunNanos) {
+            this.name = name;
+            this.queueDepth = queueDepth;
+            this.peakQueueDepth = peakQueueDepth;
+            this.activeThreads = activeThreads;
+            this.finishedTasks = finishedTasks;
+            this.overflows = overflows;
+            this.rejected = rejected;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.totalRunNanos = totalRunNanos;
+            this.maxRunNanos = maxRunNanos;
+        }
+
+        public double averageWaitMillis() {
+            return finishedTasks == 0 ? 0 : totalWaitNanos / 1e6 / finishedTasks;
+        }
+
+        public double averageRunMillis() {
+            return finishedTasks == 0 ? 0 : totalRunNanos / 1e6 / finishedTasks;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%s: queued %d (peak %d), active %d, done %d, overflows %d, rejected %d, " +
+                            "wait avg %.1f ms max %d ms, run avg %.1f ms max %d ms",
+                    name, queueDepth, peakQueueDepth, activeThreads, finishedTasks, overflows, rejected,
+                    averageWaitMillis(), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos),
+                    averageRunMillis(), TimeUnit.NANOSECONDS.toMillis(maxRunNanos));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.myapplication.common.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Quantizes coordinates onto a fixed 0.01 degree grid so location lookups can
+ * use an equality / IN range scan on an indexed integer column instead of
+ * ABS(latitude - :lat) filters.
+ *
+ * The arithmetic is mirrored in WeatherDatabaseMigrations for the backfill, keep them in sync.
+ */
+public final class GeoCell {
+
+    public static final int CELLS_PER_DEGREE = 100;
+    public static final double CELL_SIZE_DEGREES = 1.0 / CELLS_PER_DEGREE;
+
+    // Longitude index range is [0, 36000], so the row stride needs one extra slot
+    public static final long LONGITUDE_STRIDE = 360L * CELLS_PER_DEGREE + 1;
+
+    private GeoCell() {}
+
+    public static long of(double latitude, double longitude) {
+        return latitudeIndex(latitude) * LONGITUDE_STRIDE + longitudeIndex(longitude);
+    }
+
+    /**
+     * The cell containing the coordinate and its eight neighbours. Any point within
+     * one cell size of (latitude, longitude) is guaranteed to fall in one of them.
+     */
+    public static List<Long> neighbourhood(double latitude, double longitude) {
+        long latIndex = latitudeIndex(latitude);
+        long lonIndex = longitudeIndex(longitude);
+
+        List<Long> cells = new ArrayList<>(9);
+        for (long dLat = -1; dLat <= 1; dLat++) {
+            long lat = latIndex + dLat;
+            if (lat < 0 || lat > 180L * CELLS_PER_DEGREE) continue;
+
+            for (long dLon = -1; dLon <= 1; dLon++) {
+                long lon = lonIndex + dLon;
+                if (lon < 0 || lon >= LONGITUDE_STRIDE) continue;
+                cells.add(lat * LONGITUDE_STRIDE + lon);
+            }
+        }
+        return cells;
+    }
+
+    private static long latitudeIndex(double latitude) {
+        return (long) Math.floor((latitude + 90.0) * CELLS_PER_DEGREE);
+    }
+
+    private static long longitudeIndex(double longitude) {
+        return (long) Math.floor((longitude + 180.0) * CELLS_PER_DEGREE);
+    }
+}
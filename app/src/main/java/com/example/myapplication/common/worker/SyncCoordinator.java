@@ -0,0 +1,198 @@
+package com.example.myapplication.common.worker;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import com.example.myapplication.common.Constants;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single entry point for every sync trigger: manual refresh, location change and the
+ * periodic schedule.
+ *
+ * Periodic sync is the unique periodic work kept by WeatherWorkScheduler. Manual and
+ * location triggers share one unique one-time work, so however many triggers arrive
+ * there is at most one pending run. The strongest trigger requested since the last run
+ * started is kept as the pending trigger, and the worker runs with it whatever trigger
+ * its own request carried, so a pending manual run is never downgraded by a later
+ * location change. A location change is delayed by SYNC_LOCATION_DEBOUNCE_MS and every
+ * new one restarts the delay, a burst of fixes costs one run.
+ *
+ * A running sync is never cancelled. With nothing pending the run is enqueued with
+ * APPEND_OR_REPLACE, which queues it behind a run in progress. REPLACE is only used on
+ * a pending run while nothing runs, to restart the debounce or to turn a delayed
+ * location run into an immediate manual one.
+ *
+ * Runs never carry coordinates, the worker reads the latest location when it starts.
+ * Before fetching, the worker skips every location whose sync_state row is newer than
+ * the trigger's freshness window. The UI's own fetches update sync_state through
+ * WeatherWriteBuffer, so a foreground fetch that just finished satisfies the pending
+ * background run for that location, and a one-time run satisfies the next periodic one.
+ */
+public final class SyncCoordinator {
+    private static final String TAG = "SyncCoordinator";
+
+    static final String ONE_TIME_WORK_NAME = "weather_sync_now";
+    public static final String KEY_TRIGGER = "trigger";
+
+    // Strongest trigger requested since the last one-time run started, and whether a
+    // one-time run is in progress. A flag left set by a killed run only costs an upgrade
+    private static final String PREFS_NAME = "weather_sync_prefs";
+    private static final String KEY_PENDING_TRIGGER = "pending_trigger";
+    private static final String KEY_ONE_TIME_RUNNING = "one_time_running";
+
+    // Declared strongest first
+    public enum Trigger {
+        MANUAL,
+        LOCATION_CHANGE,
+        PERIODIC;
+
+        boolean outranks(Trigger other) {
+            return ordinal() < other.ordinal();
+        }
+
+        // Work enqueued before triggers existed has no trigger, that was periodic work
+        public static Trigger fromName(String name) {
+            if (name != null) {
+                for (Trigger trigger : values()) {
+                    if (trigger.name().equals(name)) return trigger;
+                }
+            }
+            return PERIODIC;
+        }
+    }
+
+    private SyncCoordinator() {
+    }
+
+    // Synchronized with the run callbacks, so the stored state and the enqueued work agree
+    public static synchronized void requestSync(Context context, Trigger trigger) {
+        if (trigger == Trigger.PERIODIC) {
+            WeatherWorkScheduler.scheduleWeatherSync(context);
+            return;
+        }
+
+        SharedPreferences prefs = prefs(context);
+        Trigger pending = pendingTrigger(prefs);
+        Plan plan = plan(pending, prefs.getBoolean(KEY_ONE_TIME_RUNNING, false), trigger);
+        prefs.edit().putString(KEY_PENDING_TRIGGER, plan.pending.name()).apply();
+        if (plan.policy == null) {
+            Log.d(TAG, trigger + " sync merged into the pending " + plan.pending + " run");
+            return;
+        }
+
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        Data inputData = new Data.Builder()
+                .putString(KEY_TRIGGER, trigger.name())
+                .build();
+
+        long delayMs = trigger == Trigger.LOCATION_CHANGE ? Constants.SYNC_LOCATION_DEBOUNCE_MS : 0;
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(WeatherSyncWorker.class)
+                .setConstraints(constraints)
+                .setInputData(inputData)
+                .setInitialDelay(delayMs, TimeUnit.MILLISECONDS)
+                .addTag("weather_sync_one_time")
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(ONE_TIME_WORK_NAME, plan.policy, request);
+        Log.d(TAG, "Requested " + trigger + " sync with " + plan.policy
+                + (delayMs > 0 ? " in " + delayMs + " ms" : ""));
+    }
+
+    /**
+     * Called by the worker as a one-time run starts. Takes the pending trigger, later
+     * requests need a run of their own, and returns the trigger to run with.
+     */
+    static synchronized Trigger onRunStarted(Context context, Trigger requested) {
+        SharedPreferences prefs = prefs(context);
+        Trigger pending = pendingTrigger(prefs);
+        prefs.edit()
+                .remove(KEY_PENDING_TRIGGER)
+                .putBoolean(KEY_ONE_TIME_RUNNING, true)
+                .apply();
+        return pending != null && pending.outranks(requested) ? pending : requested;
+    }
+
+    static synchronized void onRunFinished(Context context) {
+        prefs(context).edit().remove(KEY_ONE_TIME_RUNNING).apply();
+    }
+
+    public static synchronized void cancelPending(Context context) {
+        WorkManager.getInstance(context).cancelUniqueWork(ONE_TIME_WORK_NAME);
+        prefs(context).edit()
+                .remove(KEY_PENDING_TRIGGER)
+                .remove(KEY_ONE_TIME_RUNNING)
+                .apply();
+    }
+
+    /**
+     * What to do when {@code requested} arrives while a run for {@code pending} (null if
+     * none) waits to start and, if {@code running}, another one-time run is in progress.
+     */
+    static Plan plan(Trigger pending, boolean running, Trigger requested) {
+        if (pending == null) {
+            return new Plan(requested, ExistingWorkPolicy.APPEND_OR_REPLACE);
+        }
+        Trigger merged = requested.outranks(pending) ? requested : pending;
+        // The pending run is queued behind the running one, replacing it would cancel both.
+        // It starts with the merged trigger anyway
+        if (running) {
+            return new Plan(merged, null);
+        }
+        boolean upgrade = merged != pending;
+        boolean debounce = pending == Trigger.LOCATION_CHANGE && requested == Trigger.LOCATION_CHANGE;
+        return new Plan(merged, upgrade || debounce ? ExistingWorkPolicy.REPLACE : null);
+    }
+
+    static final class Plan {
+        // Trigger the pending run will start with
+        final Trigger pending;
+        // How to enqueue the requested run, null when the pending run covers it
+        final ExistingWorkPolicy policy;
+
+        Plan(Trigger pending, ExistingWorkPolicy policy) {
+            this.pending = pending;
+            this.policy = policy;
+        }
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    private static Trigger pendingTrigger(SharedPreferences prefs) {
+        String name = prefs.getString(KEY_PENDING_TRIGGER, null);
+        return name != null ? Trigger.fromName(name) : null;
+    }
+
+    /**
+     * How recent a location's last sync must be for a run to skip it. Periodic runs
+     * use half the current interval, capped at the old fixed 6 h window, so a short
+     * adaptive interval still refetches on every run.
+     */
+    static long freshnessWindowMs(Trigger trigger, long intervalMinutes) {
+        switch (trigger) {
+            case MANUAL:
+                return Constants.SYNC_MANUAL_DEDUPE_MS;
+            case LOCATION_CHANGE:
+                return Constants.CACHE_FRESHNESS_WINDOW_MS;
+            default:
+                return Math.min(Constants.SYNC_PERIODIC_FRESHNESS_MAX_MS,
+                        TimeUnit.MINUTES.toMillis(intervalMinutes) / 2);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.myapplication.common.worker;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Picks the periodic sync interval from how much the weather has been changing.
+ *
+ * Recent samples for the device location are scored 0 (steady) to 1 (changing fast)
+ * on three signals: temperature change per hour, pressure change per hour and the
+ * share of consecutive samples where the condition changed. The highest of the three
+ * is the score, and the interval runs linearly from maxInterval at 0 down to
+ * minInterval at 1. The result is then raised if needed so a day of runs stays within
+ * the daily API call budget.
+ *
+ * Pure and deterministic, the same samples always give the same decision.
+ */
+public final class SyncIntervalPolicy {
+
+    // Rates at which a signal counts as fully volatile
+    static final double TEMPERATURE_RATE_SCALE = 2.0; // degrees per hour
+    static final double PRESSURE_RATE_SCALE = 1.0;    // hPa per hour
+
+    // WorkManager's floor for periodic work, intervals are rounded to this step
+    static final long STEP_MINUTES = 15;
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+    private static final long MILLIS_PER_HOUR = 60 * 60 * 1000L;
+    // Samples closer together than this are treated as this far apart, so two
+    // back-to-back fetches cannot blow the per-hour rates up
+    private static final double MIN_GAP_HOURS = 0.5;
+
+    private final long minIntervalMinutes;
+    private final long maxIntervalMinutes;
+    private final long defaultIntervalMinutes;
+    private final int dailyCallBudget;
+
+    public SyncIntervalPolicy(long minIntervalMinutes, long maxIntervalMinutes,
+                              long defaultIntervalMinutes, int dailyCallBudget) {
+        if (minIntervalMinutes < STEP_MINUTES || maxIntervalMinutes < minIntervalMinutes
+                || defaultIntervalMinutes < minIntervalMinutes || defaultIntervalMinutes > maxIntervalMinutes
+                || dailyCallBudget <= 0) {
+            throw new IllegalArgumentException("Invalid sync interval configuration");
+        }
+        this.minIntervalMinutes = minIntervalMinutes;
+        this.maxIntervalMinutes = maxIntervalMinutes;
+        this.defaultIntervalMinutes = defaultIntervalMinutes;
+        this.dailyCallBudget = dailyCallBudget;
+    }
+
+    /**
+     * @param samples     recent samples for one location, oldest first
+     * @param callsPerRun API requests one sync run makes
+     */
+    public Decision decide(List<Sample> samples, int callsPerRun) {
+        long budgetFloor = roundUp(divideRoundingUp(MINUTES_PER_DAY * Math.max(1, callsPerRun), dailyCallBudget));
+
+        if (samples == null || samples.size() < 2) {
+            long interval = Math.max(defaultIntervalMinutes, budgetFloor);
+            return new Decision(interval, 0, withBudget("not enough history, default "
+                    + defaultIntervalMinutes + " min", interval, defaultIntervalMinutes, callsPerRun));
+        }
+
+        double temperatureRate = 0;
+        double pressureRate = 0;
+        int conditionChanges = 0;
+        int pairs = samples.size() - 1;
+        for (int i = 1; i < samples.size(); i++) {
+            Sample previous = samples.get(i - 1);
+            Sample current = samples.get(i);
+            double hours = Math.max(MIN_GAP_HOURS, (current.time - previous.time) / (double) MILLIS_PER_HOUR);
+            temperatureRate += Math.abs(current.temperature - previous.temperature) / hours;
+            pressureRate += Math.abs(current.pressure - previous.pressure) / hours;
+            if (current.conditionId != previous.conditionId) {
+                conditionChanges++;
+            }
+        }
+        temperatureRate /= pairs;
+        pressureRate /= pairs;
+
+        double temperatureScore = clamp(temperatureRate / TEMPERATURE_RATE_SCALE);
+        double pressureScore = clamp(pressureRate / PRESSURE_RATE_SCALE);
+        double conditionScore = conditionChanges / (double) pairs;
+
+        double score = temperatureScore;
+        String driver = String.format(Locale.US, "temperature %.2f C/h", temperatureRate);
+        if (pressureScore > score) {
+            score = pressureScore;
+            driver = String.format(Locale.US, "pressure %.2f hPa/h", pressureRate);
+        }
+        if (conditionScore > score) {
+            score = conditionScore;
+            driver = conditionChanges + " of " + pairs + " condition changes";
+        }
+
+        long volatilityInterval = roundDown(Math.round(
+                maxIntervalMinutes - score * (maxIntervalMinutes - minIntervalMinutes)));
+        volatilityInterval = Math.max(minIntervalMinutes, volatilityInterval);
+        long interval = Math.max(volatilityInterval, budgetFloor);
+
+        String reason = String.format(Locale.US, "score %.2f from %s over %d samples, %d min",
+                score, driver, samples.size(), volatilityInterval);
+        return new Decision(interval, score, withBudget(reason, interval, volatilityInterval, callsPerRun));
+    }
+
+    private String withBudget(String reason, long interval, long wanted, int callsPerRun) {
+        if (interval == wanted) return reason;
+        return reason + ", raised to " + interval + " min by the API budget ("
+                + callsPerRun + " calls per run, " + dailyCallBudget + " per day)";
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0, Math.min(1, value));
+    }
+
+    private static long divideRoundingUp(long value, long divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    private static long roundUp(long minutes) {
+        return divideRoundingUp(minutes, STEP_MINUTES) * STEP_MINUTES;
+    }
+
+    private static long roundDown(long minutes) {
+        return minutes / STEP_MINUTES * STEP_MINUTES;
+    }
+
+    public static final class Sample {
+        public final long time;
+        public final double temperature;
+        public final double pressure;
+        public final int conditionId;
+
+        public Sample(long time, double temperature, double pressure, int conditionId) {
+            this.time = time;
+            this.temperature = temperature;
+            this.pressure = pressure;
+            this.conditionId = conditionId;
+        }
+    }
+
+    public static final class Decision {
+        public final long intervalMinutes;
+        public final double score;
+        public final String reason;
+
+        Decision(long intervalMinutes, double score, String reason) {
+            this.intervalMinutes = intervalMinutes;
+            this.score = score;
+            this.reason = reason;
+        }
+
+        // Same 1:6 ratio as the original 6h / 1h schedule, never below WorkManager's 5 min
+        public long flexMinutes() {
+            return Math.max(5, intervalMinutes / 6);
+        }
+
+        @Override
+        public String toString() {
+            return intervalMinutes + " min: " + reason;
+        }
+    }
+}
@@ -5,42 +5,101 @@ import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.hilt.work.HiltWorker;
+import androidx.work.Data;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 
+import com.example.myapplication.BuildConfig;
 import com.example.myapplication.common.Constants;
+import com.example.myapplication.common.Resource;
+import com.example.myapplication.common.executor.AppExecutors;
 import com.example.myapplication.common.utils.LocationPreferences;
+import com.example.myapplication.data.local.SavedLocationDao;
+import com.example.myapplication.data.local.SavedLocationEntity;
+import com.example.myapplication.data.local.SyncStateDao;
+import com.example.myapplication.data.local.SyncStateEntity;
+import com.example.myapplication.data.local.WeatherCompactor;
 import com.example.myapplication.data.local.WeatherDao;
-import com.example.myapplication.data.local.WeatherEntity;
+import com.example.myapplication.data.local.WeatherWriteBuffer;
 import com.example.myapplication.data.model.WeatherResponse;
-import com.example.myapplication.data.network.ApiService;
-
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
+import com.example.myapplication.data.network.HttpCacheMetrics;
+import com.example.myapplication.data.network.HttpErrors;
+import com.example.myapplication.data.network.NetworkMetrics;
+import com.example.myapplication.domain.repository.WeatherRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 
 import dagger.assisted.Assisted;
 import dagger.assisted.AssistedInject;
-import retrofit2.Response;
 
+/**
+ * Syncs the device location plus every saved location in one run, all through
+ * WeatherRepository so the worker shares the UI's caches and write path. The device
+ * location goes through getCurrentWeatherSync, which serves a fresh cached row without
+ * a request. Saved locations are batched into /group requests where the city id is
+ * known. Everything fetched is written by the repository through WeatherWriteBuffer,
+ * flushed before the run ends.
+ *
+ * Runs are requested through SyncCoordinator. The run's trigger, or a stronger one merged
+ * in while it was pending, sets how recent a location's sync_state must be for the run
+ * to skip it.
+ *
+ * Each location is reported on its own. The run only retries when nothing was
+ * synced, so one failing city does not refetch all the others, and fails instead when
+ * every location got a client error such as a rejected API key.
+ *
+ * Debug builds log the executor tiers' and the HTTP client's metrics as each run ends.
+ */
 @HiltWorker
 public class WeatherSyncWorker extends Worker {
     private static final String TAG = "WeatherSyncWorker";
 
-    private final ApiService apiService;
+    public static final String KEY_SYNCED_COUNT = "synced_count";
+    public static final String KEY_FAILED_LOCATIONS = "failed_locations";
+
+    private static final SyncIntervalPolicy INTERVAL_POLICY = new SyncIntervalPolicy(
+            Constants.SYNC_INTERVAL_MIN_MINUTES,
+            Constants.SYNC_INTERVAL_MAX_MINUTES,
+            Constants.SYNC_INTERVAL_DEFAULT_MINUTES,
+            Constants.SYNC_DAILY_CALL_BUDGET);
+
+    private final WeatherRepository weatherRepository;
     private final WeatherDao weatherDao;
+    private final SavedLocationDao savedLocationDao;
+    private final SyncStateDao syncStateDao;
+    private final WeatherWriteBuffer writeBuffer;
+    private final WeatherCompactor compactor;
+    private final AppExecutors executors;
+    private final NetworkMetrics networkMetrics;
+    private final HttpCacheMetrics cacheMetrics;
 
     @AssistedInject
     public WeatherSyncWorker(
             @Assisted Context context,
             @Assisted WorkerParameters params,
-            ApiService apiService,
-            WeatherDao weatherDao) {
+            WeatherRepository weatherRepository,
+            WeatherDao weatherDao,
+            SavedLocationDao savedLocationDao,
+            SyncStateDao syncStateDao,
+            WeatherWriteBuffer writeBuffer,
+            WeatherCompactor compactor,
+            AppExecutors executors,
+            NetworkMetrics networkMetrics,
+            HttpCacheMetrics cacheMetrics) {
         super(context, params);
-        this.apiService = apiService;
+        this.weatherRepository = weatherRepository;
         this.weatherDao = weatherDao;
+        this.savedLocationDao = savedLocationDao;
+        this.syncStateDao = syncStateDao;
+        this.writeBuffer = writeBuffer;
+        this.compactor = compactor;
+        this.executors = executors;
+        this.networkMetrics = networkMetrics;
+        this.cacheMetrics = cacheMetrics;
     }
 
     @NonNull
@@ -48,99 +107,234 @@ public class WeatherSyncWorker extends Worker {
     public Result doWork() {
         Log.d(TAG, "WeatherSyncWorker started - fetching weather data");
 
+        SyncCoordinator.Trigger trigger = SyncCoordinator.Trigger.fromName(
+                getInputData().getString(SyncCoordinator.KEY_TRIGGER));
+        boolean oneTime = trigger != SyncCoordinator.Trigger.PERIODIC;
+        if (oneTime) {
+            // Runs with the strongest trigger merged into this run while it was pending
+            trigger = SyncCoordinator.onRunStarted(getApplicationContext(), trigger);
+        }
+
         try {
-             if (shouldSkipTodaysSync()) {
-                 return Result.success();
-            }
+            long deadline = System.currentTimeMillis() + Constants.SYNC_FETCH_TIMEOUT_MS;
+            long freshnessWindowMs = SyncCoordinator.freshnessWindowMs(trigger,
+                    WeatherWorkScheduler.getSyncIntervalMinutes(getApplicationContext()));
 
-             double latitude = getInputData().getDouble("latitude", 0);
-            double longitude = getInputData().getDouble("longitude", 0);
+            // A foreground fetch may still sit in the buffer, write it so its sync_state counts
+            if (!flushBuffer()) {
+                return Result.retry();
+            }
 
-             if (!isValidCoordinate(latitude, longitude)) {
+            SavedLocationEntity current = currentLocation();
+            List<SavedLocationEntity> targets = collectTargets(current, savedLocationDao.getSavedLocations(),
+                    syncStateDao, freshnessWindowMs, System.currentTimeMillis());
+            Log.d(TAG, trigger + " sync, " + targets.size() + " locations to fetch");
+            if (targets.isEmpty()) {
+                return Result.success();
+            }
 
-                 double[] userLocation = LocationPreferences.getLastKnownLocation(getApplicationContext());
-                if (userLocation != null) {
-                    latitude = userLocation[0];
-                    longitude = userLocation[1];
-                 } else {
-                     latitude = Constants.DEFAULT_LATITUDE;
-                    longitude = Constants.DEFAULT_LONGITUDE;
-                 }
+            Map<Long, Resource<WeatherResponse>> results = new HashMap<>();
+            List<SavedLocationEntity> saved = new ArrayList<>(targets.size());
+            for (SavedLocationEntity target : targets) {
+                if (target == current) {
+                    results.put(current.cell, fetchCurrentLocation(current, deadline));
+                } else {
+                    saved.add(target);
+                }
+            }
+            if (!saved.isEmpty()) {
+                results.putAll(weatherRepository.getCurrentWeatherForLocations(saved));
             }
 
-              Response<WeatherResponse> response = apiService.getCurrentWeather(
-                    latitude,
-                    longitude,
-                    Constants.API_KEY,
-                    Constants.UNITS_METRIC
-            ).execute();
+            int syncedCount = 0;
+            for (SavedLocationEntity target : targets) {
+                Resource<WeatherResponse> result = results.get(target.cell);
+                if (result != null && result.isSuccess()) {
+                    syncedCount++;
+                    rememberCityId(target, result.getData());
+                }
+            }
 
-            if (response.isSuccessful() && response.body() != null) {
-                WeatherResponse weatherData = response.body();
+            compactor.compact(System.currentTimeMillis());
 
-                 WeatherEntity entity = new WeatherEntity(weatherData);
-                weatherDao.insertWeatherData(entity);
+            logDailyRecordsCount();
 
-                 cleanOldData();
+            adaptSyncInterval(current);
 
-                logDailyRecordsCount();
+            // Rows that never reached the database are still pending, run again to write them
+            if (!flushBuffer()) {
+                return Result.retry();
+            }
+            return toWorkResult(targets, results, syncedCount);
 
-                return Result.success();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        } catch (Exception e) {
+            Log.e(TAG, "Weather sync failed", e);
+            return Result.failure();
+        } finally {
+            // The process may be stopped once doWork returns, write everything buffered now
+            flushBuffer();
+            if (oneTime) {
+                SyncCoordinator.onRunFinished(getApplicationContext());
+            }
+            if (BuildConfig.DEBUG) {
+                executors.logMetrics();
+                Log.d(TAG, networkMetrics.toString());
+                Log.d(TAG, cacheMetrics.toString());
+            }
+        }
+    }
 
-            } else {
+    // Device location first, then saved locations, one per grid cell, minus
+    // anything synced within the trigger's freshness window
+    static List<SavedLocationEntity> collectTargets(SavedLocationEntity current,
+                                                    List<SavedLocationEntity> savedLocations,
+                                                    SyncStateDao syncStateDao,
+                                                    long freshnessWindowMs, long now) {
+        Map<Long, SavedLocationEntity> byCell = new LinkedHashMap<>();
+        byCell.put(current.cell, current);
+        for (SavedLocationEntity saved : savedLocations) {
+            if (!byCell.containsKey(saved.cell)) {
+                byCell.put(saved.cell, saved);
+            }
+        }
 
-                if (response.code() >= 500) {
-                    return Result.retry();
-                } else {
-                    return Result.failure();
-                }
+        List<SavedLocationEntity> targets = new ArrayList<>();
+        for (SavedLocationEntity location : byCell.values()) {
+            if (!syncedWithin(syncStateDao, location, freshnessWindowMs, now)) {
+                targets.add(location);
             }
+        }
+        return targets;
+    }
 
-        } catch (Exception e) {
+    // Always the latest saved location, never coordinates baked into the work request
+    private SavedLocationEntity currentLocation() {
+        double latitude = Constants.DEFAULT_LATITUDE;
+        double longitude = Constants.DEFAULT_LONGITUDE;
 
-             if (e instanceof java.net.UnknownHostException ||
-                    e instanceof java.net.SocketTimeoutException ||
-                    e instanceof java.io.IOException) {
-                 return Result.retry();
-            } else {
-                return Result.failure();
+        double[] userLocation = LocationPreferences.getLastKnownLocation(getApplicationContext());
+        if (userLocation != null && isValidCoordinate(userLocation[0], userLocation[1])) {
+            latitude = userLocation[0];
+            longitude = userLocation[1];
+        }
+        return new SavedLocationEntity("Current location", latitude, longitude);
+    }
+
+    private Resource<WeatherResponse> fetchCurrentLocation(SavedLocationEntity current, long deadline)
+            throws InterruptedException {
+        try {
+            Resource<WeatherResponse> result = weatherRepository.getCurrentWeatherSync(
+                    current.latitude, current.longitude, deadline);
+            // Stale weather is a failed sync here, so an outage still ends in a retry
+            if (result.isStale()) {
+                return Resource.error("Fetch failed, only stale weather cached", result.getData());
             }
+            return result;
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            return Resource.error(e.getMessage(), null, e);
         }
     }
 
-    private boolean shouldSkipTodaysSync() {
+    // One sync_state primary key lookup per location
+    private static boolean syncedWithin(SyncStateDao syncStateDao, SavedLocationEntity location,
+                                        long windowMs, long now) {
         try {
-             Calendar today = Calendar.getInstance();
-            today.set(Calendar.HOUR_OF_DAY, 0);
-            today.set(Calendar.MINUTE, 0);
-            today.set(Calendar.SECOND, 0);
-            today.set(Calendar.MILLISECOND, 0);
+            SyncStateEntity state = syncStateDao.getSyncState(location.cell);
+            return state != null && now - state.lastSyncedAt < windowMs;
+        } catch (Exception e) {
+            return false;
+        }
+    }
 
-            long startOfToday = today.getTimeInMillis();
+    // Saved locations learn their city id on the first sync, later runs batch them
+    private void rememberCityId(SavedLocationEntity location, WeatherResponse response) {
+        if (location.id == 0 || location.cityId == response.id || response.id <= 0) return;
+        try {
+            savedLocationDao.updateCityId(location.id, response.id);
+        } catch (Exception e) {
+            Log.e(TAG, "Error saving city id for " + location.name, e);
+        }
+    }
 
-             List<WeatherEntity> todaysRecords = weatherDao.getWeatherDataSince(startOfToday);
+    static Result toWorkResult(List<SavedLocationEntity> targets,
+                               Map<Long, Resource<WeatherResponse>> results,
+                               int syncedCount) {
+        List<String> failed = new ArrayList<>();
+        boolean retryable = false;
+        for (SavedLocationEntity target : targets) {
+            Resource<WeatherResponse> result = results.get(target.cell);
+            if (result != null && result.isSuccess()) {
+                Log.d(TAG, "Synced " + target.name);
+            } else {
+                Log.w(TAG, "Failed to sync " + target.name + ": "
+                        + (result != null ? result.getMessage() : "no result"));
+                failed.add(target.name);
+                retryable |= result == null || HttpErrors.isRetryable(result.getThrowable());
+            }
+        }
 
-            if (!todaysRecords.isEmpty()) {
-                 WeatherEntity latestRecord = todaysRecords.get(todaysRecords.size() - 1);
-                long timeSinceLastUpdate = System.currentTimeMillis() - latestRecord.cachedAt;
+        Data output = new Data.Builder()
+                .putInt(KEY_SYNCED_COUNT, syncedCount)
+                .putStringArray(KEY_FAILED_LOCATIONS, failed.toArray(new String[0]))
+                .build();
 
-                 if (timeSinceLastUpdate < (6 * 60 * 60 * 1000L)) {
-                    return true;
-                }
-            }
-            return false;
+        // Partial success is final, the failed cities are picked up by the next run.
+        // Client errors on every location would fail the same way again
+        if (syncedCount == 0) {
+            return retryable ? Result.retry() : Result.failure(output);
+        }
+        return Result.success(output);
+    }
+
+    // False when the write failed, the buffer keeps the rows for its next window
+    private boolean flushBuffer() {
+        try {
+            writeBuffer.flush();
+            return true;
         } catch (Exception e) {
-             return false;
+            Log.e(TAG, "Error writing buffered weather", e);
+            return false;
         }
     }
 
-    private void cleanOldData() {
+    // Scores the device location's recent history. Rows written this run are still
+    // in the write buffer, flush so they count
+    private void adaptSyncInterval(SavedLocationEntity current) {
         try {
-            long thirtyDaysAgo = System.currentTimeMillis() - (30 * 24 * 60 * 60 * 1000L);
-            weatherDao.cleanOldWeatherData(thirtyDaysAgo);
-         } catch (Exception e) {
-            Log.e(TAG, "Error cleaning old data", e);
+            writeBuffer.flush();
+            long since = System.currentTimeMillis() - Constants.SYNC_VOLATILITY_WINDOW_MS;
+            List<SyncIntervalPolicy.Sample> samples = new ArrayList<>();
+            for (WeatherDao.TrendSample row : weatherDao.getTrendSamples(current.cell, since)) {
+                samples.add(new SyncIntervalPolicy.Sample(row.cachedAt, row.temperature, row.pressure, row.conditionId));
+            }
+
+            SyncIntervalPolicy.Decision decision = INTERVAL_POLICY.decide(samples,
+                    callsPerRun(savedLocationDao.getSavedLocations()));
+            WeatherWorkScheduler.applySyncInterval(getApplicationContext(), decision);
+        } catch (Exception e) {
+            Log.e(TAG, "Error adapting sync interval", e);
+        }
+    }
+
+    // Every location when none was synced recently: the device location plus saved
+    // locations, /group batches where the city id is known
+    private static int callsPerRun(List<SavedLocationEntity> saved) {
+        int withCityId = 0;
+        int withoutCityId = 0;
+        for (SavedLocationEntity location : saved) {
+            if (location.cityId > 0) {
+                withCityId++;
+            } else {
+                withoutCityId++;
+            }
         }
+        int groups = (withCityId + Constants.OPENWEATHER_GROUP_MAX_IDS - 1) / Constants.OPENWEATHER_GROUP_MAX_IDS;
+        return 1 + withoutCityId + groups;
     }
 
     private void logDailyRecordsCount() {
@@ -158,4 +352,4 @@ public class WeatherSyncWorker extends Worker {
                 longitude >= -180.0 && longitude <= 180.0 &&
                 latitude != 0.0 && longitude != 0.0;
     }
-}
\ No newline at end of file
+}
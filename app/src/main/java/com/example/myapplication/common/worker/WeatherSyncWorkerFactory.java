@@ -8,19 +8,48 @@ import androidx.work.ListenableWorker;
 import androidx.work.WorkerFactory;
 import androidx.work.WorkerParameters;
 
+import com.example.myapplication.common.executor.AppExecutors;
+import com.example.myapplication.data.local.SavedLocationDao;
+import com.example.myapplication.data.local.SyncStateDao;
+import com.example.myapplication.data.local.WeatherCompactor;
 import com.example.myapplication.data.local.WeatherDao;
-import com.example.myapplication.data.network.ApiService;
+import com.example.myapplication.data.local.WeatherWriteBuffer;
+import com.example.myapplication.data.network.HttpCacheMetrics;
+import com.example.myapplication.data.network.NetworkMetrics;
+import com.example.myapplication.domain.repository.WeatherRepository;
 
 import javax.inject.Inject;
 
 public class WeatherSyncWorkerFactory extends WorkerFactory {
-    private final ApiService apiService;
+    private final WeatherRepository weatherRepository;
     private final WeatherDao weatherDao;
+    private final SavedLocationDao savedLocationDao;
+    private final SyncStateDao syncStateDao;
+    private final WeatherWriteBuffer writeBuffer;
+    private final WeatherCompactor compactor;
+    private final AppExecutors executors;
+    private final NetworkMetrics networkMetrics;
+    private final HttpCacheMetrics cacheMetrics;
 
     @Inject
-    public WeatherSyncWorkerFactory(ApiService apiService, WeatherDao weatherDao){
-        this.apiService = apiService;
+    public WeatherSyncWorkerFactory(WeatherRepository weatherRepository,
+                                    WeatherDao weatherDao,
+                                    SavedLocationDao savedLocationDao,
+                                    SyncStateDao syncStateDao,
+                                    WeatherWriteBuffer writeBuffer,
+                                    WeatherCompactor compactor,
+                                    AppExecutors executors,
+                                    NetworkMetrics networkMetrics,
+                                    HttpCacheMetrics cacheMetrics){
+        this.weatherRepository = weatherRepository;
         this.weatherDao = weatherDao;
+        this.savedLocationDao = savedLocationDao;
+        this.syncStateDao = syncStateDao;
+        this.writeBuffer = writeBuffer;
+        this.compactor = compactor;
+        this.executors = executors;
+        this.networkMetrics = networkMetrics;
+        this.cacheMetrics = cacheMetrics;
     }
 
     @Nullable
@@ -29,7 +58,9 @@ public class WeatherSyncWorkerFactory extends WorkerFactory {
                                          @NonNull String workerClassName,
                                          @NonNull WorkerParameters workerParameters) {
         if(workerClassName.equals(WeatherSyncWorker.class.getName())){
-            return new WeatherSyncWorker(appContext,workerParameters,apiService,weatherDao);
+            return new WeatherSyncWorker(appContext,workerParameters,weatherRepository,weatherDao,
+                    savedLocationDao,syncStateDao,writeBuffer,compactor,executors,
+                    networkMetrics,cacheMetrics);
         }
         return null;
     }
@@ -1,6 +1,7 @@
 package com.example.myapplication.common.worker;
 
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.util.Log;
 
 import androidx.work.Constraints;
@@ -20,61 +21,95 @@ public class WeatherWorkScheduler {
     private static final String WEATHER_SYNC_WORK_NAME = "weather_sync_work";
     private static final String TAG = "WeatherWorkScheduler";
 
+    // Last interval picked by SyncIntervalPolicy and why, kept for the next schedule call and debugging
+    private static final String PREFS_NAME = "weather_sync_prefs";
+    private static final String KEY_INTERVAL_MINUTES = "sync_interval_minutes";
+    private static final String KEY_INTERVAL_REASON = "sync_interval_reason";
+    private static final String KEY_INTERVAL_DECIDED_AT = "sync_interval_decided_at";
+
+    /**
+     * Makes sure the periodic sync exists, KEEP leaves an existing schedule alone.
+     * Uses the last adaptive interval, or the default before the first decision.
+     * The request carries no coordinates, each run reads the last known location,
+     * so a location change never needs the schedule rebuilt.
+     */
     public static void scheduleWeatherSync(Context context) {
-         double[] userLocation = LocationPreferences.getLastKnownLocation(context);
+        long intervalMinutes = getSyncIntervalMinutes(context);
 
-        if (userLocation != null) {
-             scheduleWeatherSync(context, userLocation[0], userLocation[1]);
-        } else {
-             scheduleWeatherSync(context, Constants.DEFAULT_LATITUDE, Constants.DEFAULT_LONGITUDE);
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+                WEATHER_SYNC_WORK_NAME,
+                ExistingPeriodicWorkPolicy.KEEP,
+                buildPeriodicRequest(intervalMinutes, Math.max(5, intervalMinutes / 6))
+        );
+     }
+
+    /**
+     * Applies a SyncIntervalPolicy decision. UPDATE keeps the existing work and its
+     * run history, the new interval takes effect from the next period. No-op when
+     * the interval did not change.
+     */
+    public static void applySyncInterval(Context context, SyncIntervalPolicy.Decision decision) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        long previous = prefs.getLong(KEY_INTERVAL_MINUTES, Constants.SYNC_INTERVAL_DEFAULT_MINUTES);
+        prefs.edit()
+                .putLong(KEY_INTERVAL_MINUTES, decision.intervalMinutes)
+                .putString(KEY_INTERVAL_REASON, decision.reason)
+                .putLong(KEY_INTERVAL_DECIDED_AT, System.currentTimeMillis())
+                .apply();
+
+        Log.i(TAG, "Sync interval " + decision);
+        if (previous == decision.intervalMinutes) {
+            return;
         }
+
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+                WEATHER_SYNC_WORK_NAME,
+                ExistingPeriodicWorkPolicy.UPDATE,
+                buildPeriodicRequest(decision.intervalMinutes, decision.flexMinutes())
+        );
     }
 
-    public static void scheduleWeatherSync(Context context, double latitude, double longitude) {
+    public static long getSyncIntervalMinutes(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+                .getLong(KEY_INTERVAL_MINUTES, Constants.SYNC_INTERVAL_DEFAULT_MINUTES);
+    }
+
+    public static String getSyncIntervalReason(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+                .getString(KEY_INTERVAL_REASON, null);
+    }
 
+    private static PeriodicWorkRequest buildPeriodicRequest(long intervalMinutes, long flexMinutes) {
         Constraints constraints = new Constraints.Builder()
                 .setRequiredNetworkType(NetworkType.CONNECTED)
                 .setRequiresBatteryNotLow(true)
                 .build();
 
         Data inputData = new Data.Builder()
-                .putDouble("latitude", latitude)
-                .putDouble("longitude", longitude)
+                .putString(SyncCoordinator.KEY_TRIGGER, SyncCoordinator.Trigger.PERIODIC.name())
                 .build();
 
-        PeriodicWorkRequest weatherSyncRequest = new PeriodicWorkRequest.Builder(
+        return new PeriodicWorkRequest.Builder(
                 WeatherSyncWorker.class,
-                6, TimeUnit.HOURS,
-                1, TimeUnit.HOURS
+                intervalMinutes, TimeUnit.MINUTES,
+                flexMinutes, TimeUnit.MINUTES
         )
                 .setConstraints(constraints)
                 .setInputData(inputData)
                 .addTag(TAG)
                 .addTag("weather_sync_periodic")
                 .build();
+    }
 
-        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
-                WEATHER_SYNC_WORK_NAME,
-                ExistingPeriodicWorkPolicy.KEEP,
-                weatherSyncRequest
-        );
-     }
-
+    // The next run, periodic or one-off, picks the new location up from LocationPreferences
     public static void updateWeatherSyncLocation(Context context, double latitude, double longitude) {
-
-         LocationPreferences.saveLastKnownLocation(context, latitude, longitude);
-         cancelWeatherSync(context);
-
-         try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        scheduleWeatherSync(context, latitude, longitude);
+        LocationPreferences.saveLastKnownLocation(context, latitude, longitude);
+        SyncCoordinator.requestSync(context, SyncCoordinator.Trigger.LOCATION_CHANGE);
     }
 
     public static void cancelWeatherSync(Context context) {
         WorkManager.getInstance(context).cancelUniqueWork(WEATHER_SYNC_WORK_NAME);
+        SyncCoordinator.cancelPending(context);
      }
 
     /**
@@ -108,33 +143,7 @@ public class WeatherWorkScheduler {
      * Force an immediate weather sync (useful for testing or manual refresh)
      */
     public static void triggerImmediateSync(Context context) {
-
-        double[] userLocation = LocationPreferences.getLastKnownLocation(context);
-        double latitude = Constants.DEFAULT_LATITUDE;
-        double longitude = Constants.DEFAULT_LONGITUDE;
-
-        if (userLocation != null) {
-            latitude = userLocation[0];
-            longitude = userLocation[1];
-        }
-
-        Constraints constraints = new Constraints.Builder()
-                .setRequiredNetworkType(NetworkType.CONNECTED)
-                .build();
-
-        Data inputData = new Data.Builder()
-                .putDouble("latitude", latitude)
-                .putDouble("longitude", longitude)
-                .build();
-
-        androidx.work.OneTimeWorkRequest immediateSync =
-                new androidx.work.OneTimeWorkRequest.Builder(WeatherSyncWorker.class)
-                        .setConstraints(constraints)
-                        .setInputData(inputData)
-                        .addTag("immediate_sync")
-                        .build();
-
-        WorkManager.getInstance(context).enqueue(immediateSync);
+        SyncCoordinator.requestSync(context, SyncCoordinator.Trigger.MANUAL);
      }
 
     /**
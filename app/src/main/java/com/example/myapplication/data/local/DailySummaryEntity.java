@@ -0,0 +1,17 @@
+package com.example.myapplication.data.local;
+
+import androidx.room.Entity;
+
+/**
+ * Hourly rows older than HOURLY_HISTORY_RETENTION_DAYS, folded into one row per
+ * location cell and local day. Kept indefinitely. See WeatherCompactor.
+ */
+@Entity(
+        tableName = "weather_daily_summary",
+        primaryKeys = {"cell", "dayBucket"}
+)
+public class DailySummaryEntity extends WeatherAggregateEntity {
+
+    // Same local-day numbering as WeatherEntity.dayBucket
+    public long dayBucket;
+}
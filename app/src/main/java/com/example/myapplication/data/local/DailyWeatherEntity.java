@@ -0,0 +1,30 @@
+package com.example.myapplication.data.local;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+/**
+ * Per-location, per-day pointer to the latest weather_cache row of that day in the cell,
+ * kept up to date by WeatherDao.insertWeatherData so the 7-day history never has to
+ * group the raw table. Keyed by cell first, a location's days are one primary key range.
+ */
+@Entity(
+        tableName = "daily_weather",
+        primaryKeys = {"cell", "dayBucket"},
+        foreignKeys = @ForeignKey(
+                entity = WeatherEntity.class,
+                parentColumns = "dbId",
+                childColumns = "weatherDbId",
+                onDelete = ForeignKey.CASCADE
+        ),
+        indices = {@Index("weatherDbId")}
+)
+public class DailyWeatherEntity {
+
+    public long cell;
+    public long dayBucket;
+
+    public int weatherDbId;
+    public long cachedAt;
+}
@@ -0,0 +1,33 @@
+package com.example.myapplication.data.local;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+@Dao
+public interface ForecastDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertForecast(List<ForecastEntity> entries);
+
+    @Query("DELETE FROM forecast WHERE cell = :cell")
+    void deleteForecast(long cell);
+
+    // Swaps the previous run for the new one, observers never see a mix of both
+    @Transaction
+    default void replaceForecast(long cell, List<ForecastEntity> entries) {
+        deleteForecast(cell);
+        insertForecast(entries);
+    }
+
+    @Query("SELECT * FROM forecast WHERE cell = :cell AND targetTime >= :fromTime ORDER BY targetTime ASC")
+    LiveData<List<ForecastEntity>> observeForecast(long cell, long fromTime);
+
+    @Query("SELECT MAX(fetchedAt) FROM forecast WHERE cell = :cell")
+    Long getForecastFetchedAt(long cell);
+}
@@ -0,0 +1,47 @@
+package com.example.myapplication.data.local;
+
+import androidx.room.Entity;
+
+/**
+ * One 3-hour step of the 5-day forecast. Rows are keyed by the GeoCell of the
+ * requested location and the step's target time, and a location's whole run is
+ * replaced at once, see ForecastDao.replaceForecast.
+ */
+@Entity(
+        tableName = "forecast",
+        primaryKeys = {"cell", "targetTime"}
+)
+public class ForecastEntity {
+
+    public long cell;
+
+    // Epoch seconds the step is forecast for, the API's dt
+    public long targetTime;
+
+    public long fetchedAt;
+
+    public double latitude;
+    public double longitude;
+    public String cityName;
+    public int timezone;
+
+    public double temperature;
+    public double feelsLike;
+    public double tempMin;
+    public double tempMax;
+    public int pressure;
+    public int humidity;
+
+    // First entry of the step's weather array
+    public int conditionId;
+    public String conditionMain;
+    public String description;
+    public String icon;
+
+    public double windSpeed;
+    public int windDeg;
+    public int cloudiness;
+
+    // Probability of precipitation, 0 to 1
+    public double pop;
+}
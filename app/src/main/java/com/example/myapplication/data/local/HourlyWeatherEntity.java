@@ -0,0 +1,17 @@
+package com.example.myapplication.data.local;
+
+import androidx.room.Entity;
+
+/**
+ * Raw weather_cache rows older than RAW_HISTORY_RETENTION_DAYS, folded into one
+ * row per location cell and UTC hour. See WeatherCompactor.
+ */
+@Entity(
+        tableName = "weather_hourly",
+        primaryKeys = {"cell", "hourBucket"}
+)
+public class HourlyWeatherEntity extends WeatherAggregateEntity {
+
+    // Hours since epoch
+    public long hourBucket;
+}
@@ -0,0 +1,28 @@
+package com.example.myapplication.data.local;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface SavedLocationDao {
+
+    // IGNORE keeps the existing row when the cell is already saved
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertLocation(SavedLocationEntity location);
+
+    @Query("SELECT * FROM saved_location ORDER BY addedAt ASC")
+    List<SavedLocationEntity> getSavedLocations();
+
+    @Query("UPDATE saved_location SET cityId = :cityId WHERE id = :id")
+    void updateCityId(int id, long cityId);
+
+    @Query("DELETE FROM saved_location WHERE id = :id")
+    void deleteLocation(int id);
+
+    @Query("SELECT COUNT(*) FROM saved_location")
+    int getLocationCount();
+}
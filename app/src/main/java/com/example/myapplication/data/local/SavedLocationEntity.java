@@ -0,0 +1,45 @@
+package com.example.myapplication.data.local;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.example.myapplication.common.utils.GeoCell;
+
+/**
+ * A location the background sync keeps up to date alongside the device location.
+ * One row per GeoCell, saving a place twice is a no-op.
+ */
+@Entity(
+        tableName = "saved_location",
+        indices = {@Index(value = {"cell"}, unique = true)}
+)
+public class SavedLocationEntity {
+
+    @PrimaryKey(autoGenerate = true)
+    public int id;
+
+    public String name;
+    public double latitude;
+    public double longitude;
+    public long cell;
+    public long addedAt;
+
+    // OpenWeather city id, learned from the first fetch. Lets the sync batch this
+    // location into /group requests, 0 until known
+    @ColumnInfo(defaultValue = "0")
+    public long cityId;
+
+    public SavedLocationEntity() {}
+
+    @Ignore
+    public SavedLocationEntity(String name, double latitude, double longitude) {
+        this.name = name;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.cell = GeoCell.of(latitude, longitude);
+        this.addedAt = System.currentTimeMillis();
+    }
+}
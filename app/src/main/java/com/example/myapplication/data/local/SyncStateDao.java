@@ -0,0 +1,16 @@
+package com.example.myapplication.data.local;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+
+// Read side only, rows are written by WeatherDao together with the weather rows
+@Dao
+public interface SyncStateDao {
+
+    @Query("SELECT * FROM sync_state WHERE cell = :cell")
+    SyncStateEntity getSyncState(long cell);
+
+    @Query("SELECT * FROM sync_state WHERE cell = :cell")
+    LiveData<SyncStateEntity> observeSyncState(long cell);
+}
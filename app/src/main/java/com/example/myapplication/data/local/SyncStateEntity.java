@@ -0,0 +1,25 @@
+package com.example.myapplication.data.local;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Last successful sync per location cell, kept up to date in the same transaction
+ * as the weather row it describes (see WeatherDao.updateSyncState). Freshness checks
+ * read this with one primary key lookup instead of loading the latest weather row.
+ */
+@Entity(tableName = "sync_state")
+public class SyncStateEntity {
+
+    @PrimaryKey
+    public long cell;
+
+    public long lastSyncedAt;
+
+    // Validator from the response that produced the row, null when the API sent none
+    // or the row came from a /group batch
+    public String etag;
+
+    // WeatherEntity.contentHash() of that row, unchanged hashes mean nothing new upstream
+    public long responseHash;
+}
@@ -0,0 +1,131 @@
+package com.example.myapplication.data.local;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
+import androidx.room.RoomDatabase;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiPredicate;
+
+/**
+ * LiveData that re-runs a query when Room reports a write to one of its tables, like
+ * Room's own @Query LiveData but with two differences:
+ * invalidations are debounced, so a burst of writes (a sync run, a write buffer
+ * flush) costs one query after the burst settles, and a result the same as the
+ * last one emitted is dropped, so observers only hear about real changes.
+ *
+ * Only tracks the tables while it has active observers. After being inactive it
+ * queries once more on reactivation, the sameResult check keeps that quiet.
+ */
+public class TableObservingLiveData<T> extends LiveData<T> {
+    private static final String TAG = "TableObservingLiveData";
+
+    private final InvalidationTracker tracker;
+    private final Executor executor;
+    private final long debounceMillis;
+    private final Callable<T> query;
+    private final BiPredicate<T, T> sameResult;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final InvalidationTracker.Observer observer;
+    private final Runnable refresh = this::scheduleQuery;
+
+    private final AtomicBoolean querying = new AtomicBoolean();
+    private final AtomicBoolean queryPending = new AtomicBoolean();
+    private volatile boolean active;
+    private volatile boolean hasResult;
+    private volatile T lastResult;
+    private boolean registered;
+
+    public TableObservingLiveData(RoomDatabase database, Executor executor, long debounceMillis,
+                                  String[] tables, Callable<T> query, BiPredicate<T, T> sameResult) {
+        this.tracker = database.getInvalidationTracker();
+        this.executor = executor;
+        this.debounceMillis = debounceMillis;
+        this.query = query;
+        this.sameResult = sameResult;
+        this.observer = new InvalidationTracker.Observer(tables) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> changedTables) {
+                // Restarts the window on every write, the query runs once writes pause
+                mainHandler.removeCallbacks(refresh);
+                mainHandler.postDelayed(refresh, TableObservingLiveData.this.debounceMillis);
+            }
+        };
+    }
+
+    @Override
+    protected void onActive() {
+        active = true;
+        submit(() -> {
+            syncRegistration();
+            runQuery();
+        });
+    }
+
+    @Override
+    protected void onInactive() {
+        active = false;
+        mainHandler.removeCallbacks(refresh);
+        submit(this::syncRegistration);
+    }
+
+    // Called on the main thread. A saturated executor rejects the task, it is retried
+    // after another debounce window rather than lost
+    private void submit(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Executor busy, retrying in " + debounceMillis + " ms");
+            mainHandler.postDelayed(() -> submit(task), debounceMillis);
+        }
+    }
+
+    // Add and remove touch Room's triggers, so they run on the executor. The active
+    // flag is re-read here, quick active / inactive flips settle on the latest state
+    private synchronized void syncRegistration() {
+        if (active && !registered) {
+            tracker.addObserver(observer);
+            registered = true;
+        } else if (!active && registered) {
+            tracker.removeObserver(observer);
+            registered = false;
+        }
+    }
+
+    private void scheduleQuery() {
+        if (active) {
+            submit(this::runQuery);
+        }
+    }
+
+    // One query at a time. An invalidation arriving mid-query runs it again afterwards,
+    // since the running query may have read the table before that write
+    private void runQuery() {
+        queryPending.set(true);
+        while (queryPending.get() && querying.compareAndSet(false, true)) {
+            try {
+                queryPending.set(false);
+                T result = query.call();
+                if (!hasResult || !sameResult.test(lastResult, result)) {
+                    hasResult = true;
+                    lastResult = result;
+                    postValue(result);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error running observed query", e);
+            } finally {
+                querying.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.myapplication.data.local;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Upsert;
+
+import java.util.List;
+
+@Dao
+public interface WeatherAggregateDao {
+
+    // Expired raw rows in one rowid range, with their first condition. Pairs with
+    // WeatherDao.deleteExpiredInRange, which removes exactly these rows
+    @Query("SELECT w.dbId, w.cell, w.cachedAt, w.latitude, w.longitude, w.name, w.timezone, " +
+            "w.temperature, w.humidity, c.conditionId, c.main AS conditionMain " +
+            "FROM weather_cache w " +
+            "LEFT JOIN weather_condition c ON c.weatherDbId = w.dbId AND c.position = 0 " +
+            "WHERE w.dbId >= :fromId AND w.dbId < :toId AND w.cachedAt < :cutoff")
+    List<RawSample> getRawSamplesInRange(long fromId, long toId, long cutoff);
+
+    @Query("SELECT * FROM weather_hourly WHERE cell = :cell AND hourBucket = :hourBucket")
+    HourlyWeatherEntity getHourly(long cell, long hourBucket);
+
+    @Upsert
+    void upsertHourly(List<HourlyWeatherEntity> hourly);
+
+    @Query("SELECT MIN(hourBucket) FROM weather_hourly")
+    Long getOldestHourBucket();
+
+    @Query("SELECT * FROM weather_hourly WHERE hourBucket < :cutoffHour ORDER BY hourBucket ASC LIMIT :limit")
+    List<HourlyWeatherEntity> getHourlyBefore(long cutoffHour, int limit);
+
+    @Query("DELETE FROM weather_hourly WHERE cell = :cell AND hourBucket = :hourBucket")
+    void deleteHourly(long cell, long hourBucket);
+
+    @Query("SELECT * FROM weather_daily_summary WHERE cell = :cell AND dayBucket = :dayBucket")
+    DailySummaryEntity getDailySummary(long cell, long dayBucket);
+
+    @Upsert
+    void upsertDailySummaries(List<DailySummaryEntity> summaries);
+
+    @Query("SELECT * FROM weather_hourly WHERE cell = :cell AND hourBucket >= :fromHour ORDER BY hourBucket ASC")
+    List<HourlyWeatherEntity> getHourlyHistory(long cell, long fromHour);
+
+    @Query("SELECT * FROM weather_daily_summary WHERE cell = :cell AND dayBucket >= :fromDay ORDER BY dayBucket ASC")
+    List<DailySummaryEntity> getDailyHistory(long cell, long fromDay);
+
+    class RawSample {
+        public int dbId;
+        public long cell;
+        public long cachedAt;
+        public double latitude;
+        public double longitude;
+        public String name;
+        public int timezone;
+        public double temperature;
+        public int humidity;
+        public Integer conditionId;
+        public String conditionMain;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.myapplication.data.local;
+
+/**
+ * Columns shared by the compacted history tables. Sums are stored instead of
+ * means so a bucket can keep absorbing samples across compaction passes.
+ */
+public abstract class WeatherAggregateEntity {
+
+    public long cell;
+    public double latitude;
+    public double longitude;
+    public String name;
+    public int timezone;
+
+    public int sampleCount;
+    public double minTemp;
+    public double maxTemp;
+    public double sumTemp;
+    public double sumHumidity;
+
+    // Most frequent first condition in the bucket and how many samples had it
+    public int dominantConditionId;
+    public String dominantCondition;
+    public int dominantCount;
+    // Every first condition in the bucket as "id:count:main" entries joined by ';', so a
+    // bucket merged across passes keeps exact counts, not just the previous winner's
+    public String conditionCounts;
+
+    public double getMeanTemp() {
+        return sampleCount == 0 ? 0 : sumTemp / sampleCount;
+    }
+
+    public double getMeanHumidity() {
+        return sampleCount == 0 ? 0 : sumHumidity / sampleCount;
+    }
+}
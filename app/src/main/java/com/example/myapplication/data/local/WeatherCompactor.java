@@ -0,0 +1,281 @@
+package com.example.myapplication.data.local;
+
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Downsamples old history instead of deleting it:
+ * raw weather_cache rows older than rawRetentionDays become weather_hourly rows,
+ * and hourly rows older than hourlyRetentionDays become weather_daily_summary rows.
+ *
+ * Work is done in chunks of batchSize source rows (raw rows by rowid range), each
+ * chunk in its own transaction that writes the aggregates and deletes what was
+ * folded in. A bucket split across chunks (or across runs) is merged with the row
+ * already stored.
+ *
+ * This is the app's retention cleanup, raw rows only ever leave weather_cache here.
+ */
+public class WeatherCompactor {
+    private static final String TAG = "WeatherCompactor";
+
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+
+    private static final String KEY_OLDEST_RAW_CACHED_AT = "oldest_raw_cached_at";
+    private static final String KEY_OLDEST_HOUR_BUCKET = "oldest_hour_bucket";
+    private static final String KEY_LAST_RUN_AT = "last_run_at";
+
+    private final WeatherDatabase database;
+    private final WeatherDao weatherDao;
+    private final WeatherAggregateDao aggregateDao;
+    private final SharedPreferences prefs;
+    private final int rawRetentionDays;
+    private final int hourlyRetentionDays;
+    private final int batchSize;
+
+    // Low-water marks of what each stage left behind, kept in prefs so they outlive the
+    // process. Rows are only ever added with the current time, so until a cutoff passes
+    // these a run is a no-op and returns without touching the database.
+    // Long.MIN_VALUE means not known yet
+    private volatile long oldestRawCachedAt;
+    private volatile long oldestHourBucket;
+
+    public WeatherCompactor(WeatherDatabase database, SharedPreferences prefs,
+                            int rawRetentionDays, int hourlyRetentionDays, int batchSize) {
+        if (rawRetentionDays <= 0 || hourlyRetentionDays < rawRetentionDays || batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid compaction configuration");
+        }
+        this.database = database;
+        this.weatherDao = database.weatherDao();
+        this.aggregateDao = database.weatherAggregateDao();
+        this.prefs = prefs;
+        this.oldestRawCachedAt = prefs.getLong(KEY_OLDEST_RAW_CACHED_AT, Long.MIN_VALUE);
+        this.oldestHourBucket = prefs.getLong(KEY_OLDEST_HOUR_BUCKET, Long.MIN_VALUE);
+        this.rawRetentionDays = rawRetentionDays;
+        this.hourlyRetentionDays = hourlyRetentionDays;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Runs both stages to completion. Blocking, call off the main thread.
+     */
+    public void compact(long now) {
+        try {
+            int raw = compactRawToHourly(now - rawRetentionDays * DAY_MILLIS);
+            int hourly = compactHourlyToDaily((now - hourlyRetentionDays * DAY_MILLIS) / HOUR_MILLIS);
+            if (raw > 0 || hourly > 0) {
+                Log.d(TAG, "Compacted " + raw + " raw rows and " + hourly + " hourly rows");
+            }
+            prefs.edit().putLong(KEY_LAST_RUN_AT, now).apply();
+        } catch (Exception e) {
+            Log.e(TAG, "Error compacting weather history", e);
+        }
+    }
+
+    /**
+     * Same as compact() unless a run completed less than minIntervalMillis ago. Blocking,
+     * call off the main thread.
+     */
+    public void compactIfDue(long now, long minIntervalMillis) {
+        if (now - prefs.getLong(KEY_LAST_RUN_AT, 0) < minIntervalMillis) return;
+        compact(now);
+    }
+
+    int compactRawToHourly(long cutoff) {
+        // Nothing older than the cutoff, no query at all
+        if (oldestRawCachedAt >= cutoff) return 0;
+
+        // Every rowid range between the first and the last expired row is visited. A range
+        // with nothing expired does not end the walk: upserted rows and id gaps mean dbId
+        // does not follow cachedAt
+        WeatherDao.IdRange expired = weatherDao.getExpiredIdRange(cutoff);
+        long firstId = expired.fromId != null ? expired.fromId : 1;
+        long lastId = expired.toId != null ? expired.toId : 0;
+        int total = 0;
+        for (long from = firstId; from <= lastId; from += batchSize) {
+            long rangeStart = from;
+            long rangeEnd = from + batchSize;
+            Integer folded = database.runInTransaction(() -> {
+                List<WeatherAggregateDao.RawSample> samples =
+                        aggregateDao.getRawSamplesInRange(rangeStart, rangeEnd, cutoff);
+                if (samples.isEmpty()) return 0;
+
+                Map<String, Bucket<HourlyWeatherEntity>> buckets = new LinkedHashMap<>();
+                for (WeatherAggregateDao.RawSample sample : samples) {
+                    long hourBucket = Math.floorDiv(sample.cachedAt, HOUR_MILLIS);
+                    String key = sample.cell + ":" + hourBucket;
+
+                    Bucket<HourlyWeatherEntity> bucket = buckets.get(key);
+                    if (bucket == null) {
+                        HourlyWeatherEntity row = aggregateDao.getHourly(sample.cell, hourBucket);
+                        if (row == null) {
+                            row = new HourlyWeatherEntity();
+                            row.cell = sample.cell;
+                            row.hourBucket = hourBucket;
+                        }
+                        bucket = new Bucket<>(row);
+                        buckets.put(key, bucket);
+                    }
+                    bucket.addSample(sample);
+                }
+
+                List<HourlyWeatherEntity> rows = new ArrayList<>(buckets.size());
+                for (Bucket<HourlyWeatherEntity> bucket : buckets.values()) {
+                    rows.add(bucket.finish());
+                }
+                aggregateDao.upsertHourly(rows);
+                // Same range and cutoff as the select, so exactly the rows folded above
+                weatherDao.deleteExpiredInRange(rangeStart, rangeEnd, cutoff);
+                return samples.size();
+            });
+
+            total += folded;
+            // Let other writers take the lock between batches
+            Thread.yield();
+        }
+
+        // Anything inserted from now on is newer than this, see oldestRawCachedAt
+        Long remaining = weatherDao.getOldestCachedAt();
+        oldestRawCachedAt = remaining != null ? remaining : System.currentTimeMillis();
+        prefs.edit().putLong(KEY_OLDEST_RAW_CACHED_AT, oldestRawCachedAt).apply();
+        return total;
+    }
+
+    int compactHourlyToDaily(long cutoffHour) {
+        if (oldestHourBucket >= cutoffHour) return 0;
+
+        int total = 0;
+        while (true) {
+            Integer folded = database.runInTransaction(() -> {
+                List<HourlyWeatherEntity> hours = aggregateDao.getHourlyBefore(cutoffHour, batchSize);
+                if (hours.isEmpty()) return 0;
+
+                Map<String, Bucket<DailySummaryEntity>> buckets = new LinkedHashMap<>();
+                for (HourlyWeatherEntity hour : hours) {
+                    long dayBucket = WeatherEntity.dayBucketOf(hour.hourBucket * HOUR_MILLIS, hour.timezone);
+                    String key = hour.cell + ":" + dayBucket;
+
+                    Bucket<DailySummaryEntity> bucket = buckets.get(key);
+                    if (bucket == null) {
+                        DailySummaryEntity row = aggregateDao.getDailySummary(hour.cell, dayBucket);
+                        if (row == null) {
+                            row = new DailySummaryEntity();
+                            row.cell = hour.cell;
+                            row.dayBucket = dayBucket;
+                        }
+                        bucket = new Bucket<>(row);
+                        buckets.put(key, bucket);
+                    }
+                    bucket.addAggregate(hour);
+                    aggregateDao.deleteHourly(hour.cell, hour.hourBucket);
+                }
+
+                List<DailySummaryEntity> rows = new ArrayList<>(buckets.size());
+                for (Bucket<DailySummaryEntity> bucket : buckets.values()) {
+                    rows.add(bucket.finish());
+                }
+                aggregateDao.upsertDailySummaries(rows);
+                return hours.size();
+            });
+
+            total += folded;
+            if (folded < batchSize) break;
+            Thread.yield();
+        }
+
+        Long remaining = aggregateDao.getOldestHourBucket();
+        oldestHourBucket = remaining != null ? remaining : System.currentTimeMillis() / HOUR_MILLIS;
+        prefs.edit().putLong(KEY_OLDEST_HOUR_BUCKET, oldestHourBucket).apply();
+        return total;
+    }
+
+    // Accumulates samples into an aggregate row, starting from whatever the row
+    // already holds. Condition counts are tallied here, then stored with the winner on finish()
+    private static final class Bucket<T extends WeatherAggregateEntity> {
+        private final T row;
+        private final Map<Integer, Integer> conditionCounts = new LinkedHashMap<>();
+        private final Map<Integer, String> conditionNames = new HashMap<>();
+
+        Bucket(T row) {
+            this.row = row;
+            tallyEncoded(row.conditionCounts);
+        }
+
+        void addSample(WeatherAggregateDao.RawSample sample) {
+            include(sample.latitude, sample.longitude, sample.name, sample.timezone,
+                    1, sample.temperature, sample.temperature, sample.temperature, sample.humidity);
+            if (sample.conditionId != null) {
+                tally(sample.conditionId, sample.conditionMain, 1);
+            }
+        }
+
+        void addAggregate(WeatherAggregateEntity other) {
+            include(other.latitude, other.longitude, other.name, other.timezone,
+                    other.sampleCount, other.minTemp, other.maxTemp, other.sumTemp, other.sumHumidity);
+            tallyEncoded(other.conditionCounts);
+        }
+
+        T finish() {
+            int bestCount = 0;
+            StringBuilder encoded = new StringBuilder();
+            for (Map.Entry<Integer, Integer> entry : conditionCounts.entrySet()) {
+                String name = conditionNames.get(entry.getKey());
+                if (entry.getValue() > bestCount) {
+                    bestCount = entry.getValue();
+                    row.dominantConditionId = entry.getKey();
+                    row.dominantCondition = name;
+                }
+                if (encoded.length() > 0) encoded.append(';');
+                encoded.append(entry.getKey()).append(':').append(entry.getValue())
+                        .append(':').append(name != null ? name : "");
+            }
+            row.dominantCount = bestCount;
+            row.conditionCounts = encoded.length() > 0 ? encoded.toString() : null;
+            return row;
+        }
+
+        private void include(double latitude, double longitude, String name, int timezone,
+                             int count, double min, double max, double sumTemp, double sumHumidity) {
+            if (row.sampleCount == 0) {
+                row.minTemp = min;
+                row.maxTemp = max;
+            } else {
+                row.minTemp = Math.min(row.minTemp, min);
+                row.maxTemp = Math.max(row.maxTemp, max);
+            }
+            row.sampleCount += count;
+            row.sumTemp += sumTemp;
+            row.sumHumidity += sumHumidity;
+
+            // Latest source wins for the descriptive fields
+            row.latitude = latitude;
+            row.longitude = longitude;
+            row.name = name;
+            row.timezone = timezone;
+        }
+
+        // Reads back what finish() stored, see WeatherAggregateEntity.conditionCounts
+        private void tallyEncoded(String encoded) {
+            if (encoded == null || encoded.isEmpty()) return;
+            for (String entry : encoded.split(";")) {
+                String[] parts = entry.split(":", 3);
+                String name = parts.length > 2 && !parts[2].isEmpty() ? parts[2] : null;
+                tally(Integer.parseInt(parts[0]), name, Integer.parseInt(parts[1]));
+            }
+        }
+
+        private void tally(int conditionId, String conditionName, int count) {
+            Integer current = conditionCounts.get(conditionId);
+            conditionCounts.put(conditionId, current == null ? count : current + count);
+            if (conditionName != null) {
+                conditionNames.put(conditionId, conditionName);
+            }
+        }
+    }
+}
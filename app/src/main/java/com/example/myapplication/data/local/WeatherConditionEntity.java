@@ -0,0 +1,65 @@
+package com.example.myapplication.data.local;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+
+import com.example.myapplication.data.model.Weather;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity(
+        tableName = "weather_condition",
+        primaryKeys = {"weatherDbId", "position"},
+        foreignKeys = @ForeignKey(
+                entity = WeatherEntity.class,
+                parentColumns = "dbId",
+                childColumns = "weatherDbId",
+                onDelete = ForeignKey.CASCADE
+        )
+)
+public class WeatherConditionEntity {
+
+    public int weatherDbId;
+    public int position;
+
+    public int conditionId;
+    public String main;
+    public String description;
+    public String icon;
+
+    public WeatherConditionEntity() {}
+
+    @Ignore
+    public WeatherConditionEntity(int weatherDbId, int position, Weather weather) {
+        this.weatherDbId = weatherDbId;
+        this.position = position;
+        this.conditionId = weather.id;
+        this.main = weather.main;
+        this.description = weather.description;
+        this.icon = weather.icon;
+    }
+
+    public Weather toWeather() {
+        Weather weather = new Weather();
+        weather.id = this.conditionId;
+        weather.main = this.main;
+        weather.description = this.description;
+        weather.icon = this.icon;
+        return weather;
+    }
+
+    public static List<WeatherConditionEntity> fromWeatherList(int weatherDbId, List<Weather> weatherList) {
+        List<WeatherConditionEntity> conditions = new ArrayList<>();
+        if (weatherList == null) return conditions;
+
+        for (int i = 0; i < weatherList.size(); i++) {
+            Weather weather = weatherList.get(i);
+            if (weather != null) {
+                conditions.add(new WeatherConditionEntity(weatherDbId, i, weather));
+            }
+        }
+        return conditions;
+    }
+}
@@ -4,72 +4,235 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Upsert;
 
-import com.example.myapplication.data.model.WeatherResponse;
+import com.example.myapplication.common.utils.GeoCell;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Dao
 public interface WeatherDao {
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertWeatherData(WeatherEntity weatherEntity);
+    long insertWeatherRow(WeatherEntity weatherEntity);
 
-    @Query("SELECT * FROM weather_cache WHERE " +
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    long[] insertWeatherRows(List<WeatherEntity> weatherEntities);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertConditions(List<WeatherConditionEntity> conditions);
+
+    // Upsert updates in place instead of REPLACE's delete + insert, which would
+    // cascade away the row's conditions and its daily rollup pointer
+    @Upsert
+    long[] upsertWeatherRows(List<WeatherEntity> weatherEntities);
+
+    @Query("DELETE FROM weather_condition WHERE weatherDbId IN (:weatherDbIds)")
+    void deleteConditions(List<Integer> weatherDbIds);
+
+    // Only replaces the cell's pointer for the day when the new row is at least as recent
+    @Query("INSERT OR REPLACE INTO daily_weather (cell, dayBucket, weatherDbId, cachedAt) " +
+            "SELECT :cell, :dayBucket, :weatherDbId, :cachedAt " +
+            "WHERE NOT EXISTS (SELECT 1 FROM daily_weather " +
+            "    WHERE cell = :cell AND dayBucket = :dayBucket AND cachedAt > :cachedAt)")
+    void updateDailyRollup(long cell, long dayBucket, int weatherDbId, long cachedAt);
+
+    // Same rule as the rollup, an older row never moves the sync time back
+    @Query("INSERT OR REPLACE INTO sync_state (cell, lastSyncedAt, etag, responseHash) " +
+            "SELECT :cell, :syncedAt, :etag, :responseHash " +
+            "WHERE NOT EXISTS (SELECT 1 FROM sync_state " +
+            "    WHERE cell = :cell AND lastSyncedAt > :syncedAt)")
+    void updateSyncState(long cell, long syncedAt, String etag, long responseHash);
+
+    default void updateSyncState(WeatherEntity entity) {
+        updateSyncState(entity.cell, entity.cachedAt, entity.etag, entity.contentHash());
+    }
+
+    // Writes the flattened row, its condition list, the daily rollup and the sync state atomically
+    @Transaction
+    default void insertWeatherData(WeatherEntity weatherEntity) {
+        weatherEntity.dayBucket = WeatherEntity.dayBucketOf(weatherEntity.cachedAt, weatherEntity.timezone);
+        long rowId = insertWeatherRow(weatherEntity);
+        weatherEntity.dbId = (int) rowId;
+        insertConditions(WeatherConditionEntity.fromWeatherList(weatherEntity.dbId, weatherEntity.weather));
+        updateDailyRollup(weatherEntity.cell, weatherEntity.dayBucket, weatherEntity.dbId, weatherEntity.cachedAt);
+        updateSyncState(weatherEntity);
+    }
+
+    // Same as insertWeatherData for a whole batch, in one transaction and one commit
+    @Transaction
+    default void insertAll(List<WeatherEntity> weatherEntities) {
+        if (weatherEntities.isEmpty()) return;
+
+        for (WeatherEntity entity : weatherEntities) {
+            entity.dayBucket = WeatherEntity.dayBucketOf(entity.cachedAt, entity.timezone);
+        }
+
+        long[] rowIds = insertWeatherRows(weatherEntities);
+        List<WeatherConditionEntity> conditions = new ArrayList<>();
+        for (int i = 0; i < rowIds.length; i++) {
+            WeatherEntity entity = weatherEntities.get(i);
+            entity.dbId = (int) rowIds[i];
+            conditions.addAll(WeatherConditionEntity.fromWeatherList(entity.dbId, entity.weather));
+            updateDailyRollup(entity.cell, entity.dayBucket, entity.dbId, entity.cachedAt);
+            updateSyncState(entity);
+        }
+        insertConditions(conditions);
+    }
+
+    // Batch write for rows that may already exist (dbId set). Updated rows get their
+    // condition list rewritten, new rows pick up their generated dbId
+    @Transaction
+    default void upsertAll(List<WeatherEntity> weatherEntities) {
+        if (weatherEntities.isEmpty()) return;
+
+        List<Integer> existingIds = new ArrayList<>();
+        for (WeatherEntity entity : weatherEntities) {
+            entity.dayBucket = WeatherEntity.dayBucketOf(entity.cachedAt, entity.timezone);
+            if (entity.dbId != 0) {
+                existingIds.add(entity.dbId);
+            }
+        }
+        if (!existingIds.isEmpty()) {
+            deleteConditions(existingIds);
+        }
+
+        // Upsert reports -1 for rows it updated rather than inserted
+        long[] rowIds = upsertWeatherRows(weatherEntities);
+        List<WeatherConditionEntity> conditions = new ArrayList<>();
+        for (int i = 0; i < rowIds.length; i++) {
+            WeatherEntity entity = weatherEntities.get(i);
+            if (rowIds[i] != -1) {
+                entity.dbId = (int) rowIds[i];
+            }
+            conditions.addAll(WeatherConditionEntity.fromWeatherList(entity.dbId, entity.weather));
+            updateDailyRollup(entity.cell, entity.dayBucket, entity.dbId, entity.cachedAt);
+            updateSyncState(entity);
+        }
+        insertConditions(conditions);
+    }
+
+    // The cell IN list is served by index_weather_cache_cell_cachedAt, the ABS
+    // filter only trims neighbouring cells back to the original 0.01 degree radius.
+    // The SQL is shared with WeatherDaoQueryPlanTest, which checks the plan
+    String CACHED_WEATHER_IN_CELLS = "SELECT * FROM weather_cache WHERE " +
+            "cell IN (:cells) AND " +
             "ABS(latitude - :lat) < 0.01 AND " +
             "ABS(longitude - :lon) < 0.01 " +
-            "ORDER BY cachedAt DESC LIMIT 1")
-    WeatherEntity getCachedWeatherByLocation(double lat, double lon);
+            "ORDER BY cachedAt DESC LIMIT 1";
 
-    @Query("SELECT * FROM weather_cache WHERE " +
+    String WEATHER_IN_CELLS_SINCE = "SELECT * FROM weather_cache WHERE " +
+            "cell IN (:cells) AND " +
+            "cachedAt >= :startTime AND " +
             "ABS(latitude - :lat) < 0.01 AND " +
-            "ABS(longitude - :lon) < 0.01 AND " +
-            "cachedAt >= :startTime " +
-            "ORDER BY cachedAt ASC")
-    List<WeatherEntity> getLocationWeatherSince(double lat, double lon, long startTime);
+            "ABS(longitude - :lon) < 0.01 " +
+            "ORDER BY cachedAt ASC";
+
+    @Transaction
+    @Query(CACHED_WEATHER_IN_CELLS)
+    WeatherWithConditions getCachedWeatherInCells(List<Long> cells, double lat, double lon);
 
+    default WeatherWithConditions getCachedWeatherByLocation(double lat, double lon) {
+        return getCachedWeatherInCells(GeoCell.neighbourhood(lat, lon), lat, lon);
+    }
+
+    @Transaction
+    @Query(WEATHER_IN_CELLS_SINCE)
+    List<WeatherWithConditions> getWeatherInCellsSince(List<Long> cells, double lat, double lon, long startTime);
+
+    default List<WeatherWithConditions> getLocationWeatherSince(double lat, double lon, long startTime) {
+        return getWeatherInCellsSince(GeoCell.neighbourhood(lat, lon), lat, lon, startTime);
+    }
+
+    @Transaction
     @Query("SELECT * FROM weather_cache WHERE " +
             "cachedAt >= :startTime " +
             "ORDER BY cachedAt ASC")
-    List<WeatherEntity> getWeatherDataSince(long startTime);
+    List<WeatherWithConditions> getWeatherDataSince(long startTime);
 
     // New query to get one record per day for the last 7 days
+    @Transaction
     @Query("SELECT * FROM weather_cache WHERE " +
             "cachedAt >= :startTime " +
-            "GROUP BY date(cachedAt/1000, 'unixepoch', 'localtime') " +
+            "GROUP BY dayBucket " +
             "ORDER BY cachedAt DESC " +
             "LIMIT 7")
-    List<WeatherEntity> getLast7DaysWeatherGroupedByDay(long startTime);
-
-    // Alternative query for better performance - gets the latest record for each day
-    @Query("SELECT w1.* FROM weather_cache w1 " +
-            "INNER JOIN (" +
-            "    SELECT date(cachedAt/1000, 'unixepoch', 'localtime') as day, " +
-            "           MAX(cachedAt) as maxTime " +
-            "    FROM weather_cache " +
-            "    WHERE cachedAt >= :startTime " +
-            "    GROUP BY date(cachedAt/1000, 'unixepoch', 'localtime')" +
-            ") w2 ON date(w1.cachedAt/1000, 'unixepoch', 'localtime') = w2.day " +
-            "    AND w1.cachedAt = w2.maxTime " +
-            "ORDER BY w1.cachedAt DESC " +
-            "LIMIT 7")
-    List<WeatherEntity> getLast7DaysLatestWeatherPerDay(long startTime);
+    List<WeatherWithConditions> getLast7DaysWeatherGroupedByDay(long startTime);
 
-    // Clean up old data (optional - keeps only last 30 days)
-    @Query("DELETE FROM weather_cache WHERE cachedAt < :thirtyDaysAgo")
-    void cleanOldWeatherData(long thirtyDaysAgo);
+    // Per-day rollup rows of the given cells. With the dayBucket bound (startTime minus
+    // the largest UTC offset, 14h) each cell is a primary key range scan, so at most a
+    // handful of rollup rows are visited. Latest first within a day
+    @Transaction
+    @Query("SELECT w.* FROM daily_weather d " +
+            "INNER JOIN weather_cache w ON w.dbId = d.weatherDbId " +
+            "WHERE d.cell IN (:cells) " +
+            "    AND d.dayBucket >= (:startTime / 1000 - 50400) / 86400 " +
+            "    AND d.cachedAt >= :startTime " +
+            "    AND ABS(w.latitude - :lat) < 0.01 " +
+            "    AND ABS(w.longitude - :lon) < 0.01 " +
+            "ORDER BY d.dayBucket DESC, d.cachedAt DESC")
+    List<WeatherWithConditions> getDailyWeatherInCellsSince(List<Long> cells, double lat, double lon, long startTime);
+
+    // Latest record for each of the location's last 7 days. The neighbourhood may hold
+    // a rollup row per cell for the same day, only the most recent one is kept
+    default List<WeatherWithConditions> getLast7DaysLatestWeatherPerDay(double lat, double lon, long startTime) {
+        List<WeatherWithConditions> days = new ArrayList<>(7);
+        long previousDay = Long.MIN_VALUE;
+        for (WeatherWithConditions row : getDailyWeatherInCellsSince(GeoCell.neighbourhood(lat, lon), lat, lon, startTime)) {
+            if (row.entity.dayBucket == previousDay) continue;
+            previousDay = row.entity.dayBucket;
+            days.add(row);
+            if (days.size() == 7) break;
+        }
+        return days;
+    }
+
+    // Served by index_weather_cache_cachedAt, a single index probe
+    @Query("SELECT MIN(cachedAt) FROM weather_cache")
+    Long getOldestCachedAt();
+
+    // First and last rowid holding a row older than the cutoff, read from the cachedAt
+    // index. Both null when nothing has expired
+    @Query("SELECT MIN(dbId) AS fromId, MAX(dbId) AS toId FROM weather_cache WHERE cachedAt < :cutoff")
+    IdRange getExpiredIdRange(long cutoff);
+
+    // Bounded by the rowid range, conditions and rollup pointers cascade
+    @Query("DELETE FROM weather_cache WHERE dbId >= :fromId AND dbId < :toId AND cachedAt < :cutoff")
+    int deleteExpiredInRange(long fromId, long toId, long cutoff);
+
+    // Just the fields the sync interval policy scores, no Gson columns or relations
+    @Query("SELECT w.cachedAt, w.temperature, w.pressure, IFNULL(c.conditionId, 0) AS conditionId " +
+            "FROM weather_cache w " +
+            "LEFT JOIN weather_condition c ON c.weatherDbId = w.dbId AND c.position = 0 " +
+            "WHERE w.cell = :cell AND w.cachedAt >= :startTime " +
+            "ORDER BY w.cachedAt ASC")
+    List<TrendSample> getTrendSamples(long cell, long startTime);
 
     // Get count of records per day (for debugging)
-    @Query("SELECT date(cachedAt/1000, 'unixepoch', 'localtime') as day, " +
+    @Query("SELECT date(dayBucket * 86400, 'unixepoch') as day, " +
             "COUNT(*) as count " +
             "FROM weather_cache " +
             "WHERE cachedAt >= :startTime " +
-            "GROUP BY date(cachedAt/1000, 'unixepoch', 'localtime') " +
-            "ORDER BY day DESC")
+            "GROUP BY dayBucket " +
+            "ORDER BY dayBucket DESC")
     List<DayCountResult> getRecordsCountPerDay(long startTime);
 
     class DayCountResult {
         public String day;
         public int count;
     }
-}
\ No newline at end of file
+
+    class IdRange {
+        public Integer fromId;
+        public Integer toId;
+    }
+
+    class TrendSample {
+        public long cachedAt;
+        public double temperature;
+        public int pressure;
+        public int conditionId;
+    }
+}
@@ -4,18 +4,23 @@ package com.example.myapplication.data.local;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
-import androidx.room.TypeConverters;
 
 import android.content.Context;
 
-import com.example.myapplication.data.local.converter.WeatherTypeConverter;
-
 @Database(
-        entities = {WeatherEntity.class},
-        version = 1,
+        entities = {
+                WeatherEntity.class,
+                WeatherConditionEntity.class,
+                DailyWeatherEntity.class,
+                SavedLocationEntity.class,
+                ForecastEntity.class,
+                HourlyWeatherEntity.class,
+                DailySummaryEntity.class,
+                SyncStateEntity.class
+        },
+        version = 10,
         exportSchema = false
 )
-@TypeConverters({WeatherTypeConverter.class})
 public abstract class WeatherDatabase extends RoomDatabase {
 
  private static final String DATABASE_NAME = "weather_database";
@@ -23,6 +28,14 @@ public abstract class WeatherDatabase extends RoomDatabase {
 
  public abstract WeatherDao weatherDao();
 
+ public abstract SavedLocationDao savedLocationDao();
+
+ public abstract ForecastDao forecastDao();
+
+ public abstract WeatherAggregateDao weatherAggregateDao();
+
+ public abstract SyncStateDao syncStateDao();
+
  public static WeatherDatabase getInstance(Context context) {
   if (INSTANCE == null) {
    synchronized (WeatherDatabase.class) {
@@ -32,7 +45,9 @@ public abstract class WeatherDatabase extends RoomDatabase {
                      WeatherDatabase.class,
                      DATABASE_NAME
              )
-             .fallbackToDestructiveMigration()
+             // No destructive fallback: a missing or broken migration must fail loudly
+             // rather than wipe the history. Every step is covered by WeatherDatabaseMigrationTest
+             .addMigrations(WeatherDatabaseMigrations.ALL)
              .build();
     }
    }
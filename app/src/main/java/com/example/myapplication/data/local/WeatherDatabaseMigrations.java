@@ -0,0 +1,329 @@
+package com.example.myapplication.data.local;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.myapplication.common.utils.GeoCell;
+import com.example.myapplication.data.local.converter.WeatherTypeConverter;
+import com.example.myapplication.data.model.Clouds;
+import com.example.myapplication.data.model.Main;
+import com.example.myapplication.data.model.Sys;
+import com.example.myapplication.data.model.Weather;
+import com.example.myapplication.data.model.Wind;
+
+import java.util.List;
+
+public class WeatherDatabaseMigrations {
+
+    /**
+     * v1 stored coord, weather, main, wind, clouds and sys as Gson JSON columns.
+     * v2 flattens them into primitive columns plus the weather_condition child table.
+     * The JSON is decoded once here so reads never touch Gson again.
+     */
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `weather_cache_v2` (" +
+                    "`dbId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`id` INTEGER NOT NULL, " +
+                    "`base` TEXT, " +
+                    "`visibility` INTEGER NOT NULL, " +
+                    "`dt` INTEGER NOT NULL, " +
+                    "`timezone` INTEGER NOT NULL, " +
+                    "`name` TEXT, " +
+                    "`cod` INTEGER NOT NULL, " +
+                    "`latitude` REAL NOT NULL, " +
+                    "`longitude` REAL NOT NULL, " +
+                    "`temperature` REAL NOT NULL, " +
+                    "`feelsLike` REAL NOT NULL, " +
+                    "`tempMin` REAL NOT NULL, " +
+                    "`tempMax` REAL NOT NULL, " +
+                    "`pressure` INTEGER NOT NULL, " +
+                    "`humidity` INTEGER NOT NULL, " +
+                    "`seaLevel` INTEGER NOT NULL, " +
+                    "`grndLevel` INTEGER NOT NULL, " +
+                    "`windSpeed` REAL NOT NULL, " +
+                    "`windDeg` INTEGER NOT NULL, " +
+                    "`cloudiness` INTEGER NOT NULL, " +
+                    "`sysType` INTEGER NOT NULL, " +
+                    "`sysId` INTEGER NOT NULL, " +
+                    "`country` TEXT, " +
+                    "`sunrise` INTEGER NOT NULL, " +
+                    "`sunset` INTEGER NOT NULL, " +
+                    "`cachedAt` INTEGER NOT NULL)");
+
+            // References the final table name, foreign keys are not enforced during migration
+            db.execSQL("CREATE TABLE IF NOT EXISTS `weather_condition` (" +
+                    "`weatherDbId` INTEGER NOT NULL, " +
+                    "`position` INTEGER NOT NULL, " +
+                    "`conditionId` INTEGER NOT NULL, " +
+                    "`main` TEXT, " +
+                    "`description` TEXT, " +
+                    "`icon` TEXT, " +
+                    "PRIMARY KEY(`weatherDbId`, `position`), " +
+                    "FOREIGN KEY(`weatherDbId`) REFERENCES `weather_cache`(`dbId`) " +
+                    "ON UPDATE NO ACTION ON DELETE CASCADE )");
+
+            try (Cursor cursor = db.query("SELECT dbId, id, base, visibility, dt, timezone, name, cod, " +
+                    "latitude, longitude, temperature, cachedAt, weather, main, wind, clouds, sys " +
+                    "FROM weather_cache")) {
+                while (cursor.moveToNext()) {
+                    copyV1Row(db, cursor);
+                }
+            }
+
+            db.execSQL("DROP TABLE `weather_cache`");
+            db.execSQL("ALTER TABLE `weather_cache_v2` RENAME TO `weather_cache`");
+        }
+    };
+
+    /**
+     * v3 adds the quantized grid cell column and the (cell, cachedAt) index used by
+     * the location lookups. The backfill mirrors GeoCell.of(): both offsets are
+     * non-negative, so CAST truncation equals Math.floor.
+     */
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `weather_cache` ADD COLUMN `cell` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("UPDATE `weather_cache` SET `cell` = " +
+                    "CAST((latitude + 90.0) * " + GeoCell.CELLS_PER_DEGREE + " AS INTEGER) * " + GeoCell.LONGITUDE_STRIDE +
+                    " + CAST((longitude + 180.0) * " + GeoCell.CELLS_PER_DEGREE + " AS INTEGER)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_weather_cache_cell_cachedAt` " +
+                    "ON `weather_cache` (`cell`, `cachedAt`)");
+        }
+    };
+
+    /**
+     * v4 stores the local-day bucket on each row and adds the daily_weather rollup
+     * holding the latest row per cell and day. Existing rows are bucketed with the same
+     * formula as WeatherEntity.dayBucketOf().
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `weather_cache` ADD COLUMN `dayBucket` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("UPDATE `weather_cache` SET `dayBucket` = (cachedAt / 1000 + timezone) / 86400");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `daily_weather` (" +
+                    "`cell` INTEGER NOT NULL, " +
+                    "`dayBucket` INTEGER NOT NULL, " +
+                    "`weatherDbId` INTEGER NOT NULL, " +
+                    "`cachedAt` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`cell`, `dayBucket`), " +
+                    "FOREIGN KEY(`weatherDbId`) REFERENCES `weather_cache`(`dbId`) " +
+                    "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_daily_weather_weatherDbId` " +
+                    "ON `daily_weather` (`weatherDbId`)");
+
+            // Rows are replayed oldest first, so the latest row of each cell and day wins
+            db.execSQL("INSERT OR REPLACE INTO `daily_weather` (cell, dayBucket, weatherDbId, cachedAt) " +
+                    "SELECT cell, dayBucket, dbId, cachedAt FROM `weather_cache` ORDER BY cachedAt ASC");
+        }
+    };
+
+    /**
+     * v5 adds saved_location, the set of places the background sync refreshes.
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `saved_location` (" +
+                    "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`name` TEXT, " +
+                    "`latitude` REAL NOT NULL, " +
+                    "`longitude` REAL NOT NULL, " +
+                    "`cell` INTEGER NOT NULL, " +
+                    "`addedAt` INTEGER NOT NULL)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_saved_location_cell` " +
+                    "ON `saved_location` (`cell`)");
+        }
+    };
+
+    /**
+     * v6 records the OpenWeather city id on saved locations for /group batching.
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `saved_location` ADD COLUMN `cityId` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    /**
+     * v7 adds the forecast time series, one row per location cell and 3-hour step.
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `forecast` (" +
+                    "`cell` INTEGER NOT NULL, " +
+                    "`targetTime` INTEGER NOT NULL, " +
+                    "`fetchedAt` INTEGER NOT NULL, " +
+                    "`latitude` REAL NOT NULL, " +
+                    "`longitude` REAL NOT NULL, " +
+                    "`cityName` TEXT, " +
+                    "`timezone` INTEGER NOT NULL, " +
+                    "`temperature` REAL NOT NULL, " +
+                    "`feelsLike` REAL NOT NULL, " +
+                    "`tempMin` REAL NOT NULL, " +
+                    "`tempMax` REAL NOT NULL, " +
+                    "`pressure` INTEGER NOT NULL, " +
+                    "`humidity` INTEGER NOT NULL, " +
+                    "`conditionId` INTEGER NOT NULL, " +
+                    "`conditionMain` TEXT, " +
+                    "`description` TEXT, " +
+                    "`icon` TEXT, " +
+                    "`windSpeed` REAL NOT NULL, " +
+                    "`windDeg` INTEGER NOT NULL, " +
+                    "`cloudiness` INTEGER NOT NULL, " +
+                    "`pop` REAL NOT NULL, " +
+                    "PRIMARY KEY(`cell`, `targetTime`))");
+        }
+    };
+
+    /**
+     * v8 adds the compacted history tables written by WeatherCompactor.
+     */
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `weather_hourly` (" +
+                    "`cell` INTEGER NOT NULL, " +
+                    "`latitude` REAL NOT NULL, " +
+                    "`longitude` REAL NOT NULL, " +
+                    "`name` TEXT, " +
+                    "`timezone` INTEGER NOT NULL, " +
+                    "`sampleCount` INTEGER NOT NULL, " +
+                    "`minTemp` REAL NOT NULL, " +
+                    "`maxTemp` REAL NOT NULL, " +
+                    "`sumTemp` REAL NOT NULL, " +
+                    "`sumHumidity` REAL NOT NULL, " +
+                    "`dominantConditionId` INTEGER NOT NULL, " +
+                    "`dominantCondition` TEXT, " +
+                    "`dominantCount` INTEGER NOT NULL, " +
+                    "`conditionCounts` TEXT, " +
+                    "`hourBucket` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`cell`, `hourBucket`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `weather_daily_summary` (" +
+                    "`cell` INTEGER NOT NULL, " +
+                    "`latitude` REAL NOT NULL, " +
+                    "`longitude` REAL NOT NULL, " +
+                    "`name` TEXT, " +
+                    "`timezone` INTEGER NOT NULL, " +
+                    "`sampleCount` INTEGER NOT NULL, " +
+                    "`minTemp` REAL NOT NULL, " +
+                    "`maxTemp` REAL NOT NULL, " +
+                    "`sumTemp` REAL NOT NULL, " +
+                    "`sumHumidity` REAL NOT NULL, " +
+                    "`dominantConditionId` INTEGER NOT NULL, " +
+                    "`dominantCondition` TEXT, " +
+                    "`dominantCount` INTEGER NOT NULL, " +
+                    "`conditionCounts` TEXT, " +
+                    "`dayBucket` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`cell`, `dayBucket`))");
+        }
+    };
+
+    /**
+     * v9 indexes weather_cache.cachedAt for the retention cleanup and compaction.
+     */
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_weather_cache_cachedAt` " +
+                    "ON `weather_cache` (`cachedAt`)");
+        }
+    };
+
+    /**
+     * v10 adds sync_state, seeded with each cell's latest cachedAt so the first sync
+     * after the upgrade still sees recent rows.
+     */
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sync_state` (" +
+                    "`cell` INTEGER NOT NULL, " +
+                    "`lastSyncedAt` INTEGER NOT NULL, " +
+                    "`etag` TEXT, " +
+                    "`responseHash` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`cell`))");
+            db.execSQL("INSERT INTO sync_state (cell, lastSyncedAt, etag, responseHash) " +
+                    "SELECT cell, MAX(cachedAt), NULL, 0 FROM weather_cache GROUP BY cell");
+        }
+    };
+
+    // Every step from v1, in order. WeatherDatabase and WeatherDatabaseMigrationTest share it
+    public static final Migration[] ALL = {
+            MIGRATION_1_2,
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10
+    };
+
+    private static void copyV1Row(SupportSQLiteDatabase db, Cursor cursor) {
+        int dbId = cursor.getInt(0);
+
+        ContentValues values = new ContentValues();
+        values.put("dbId", dbId);
+        values.put("id", cursor.getLong(1));
+        values.put("base", cursor.getString(2));
+        values.put("visibility", cursor.getInt(3));
+        values.put("dt", cursor.getLong(4));
+        values.put("timezone", cursor.getInt(5));
+        values.put("name", cursor.getString(6));
+        values.put("cod", cursor.getInt(7));
+        values.put("latitude", cursor.getDouble(8));
+        values.put("longitude", cursor.getDouble(9));
+        values.put("temperature", cursor.getDouble(10));
+        values.put("cachedAt", cursor.getLong(11));
+
+        Main main = WeatherTypeConverter.toMain(cursor.getString(13));
+        values.put("feelsLike", main != null ? main.feels_like : 0);
+        values.put("tempMin", main != null ? main.temp_min : 0);
+        values.put("tempMax", main != null ? main.temp_max : 0);
+        values.put("pressure", main != null ? main.pressure : 0);
+        values.put("humidity", main != null ? main.humidity : 0);
+        values.put("seaLevel", main != null ? main.sea_level : 0);
+        values.put("grndLevel", main != null ? main.grnd_level : 0);
+
+        Wind wind = WeatherTypeConverter.toWind(cursor.getString(14));
+        values.put("windSpeed", wind != null ? wind.speed : 0);
+        values.put("windDeg", wind != null ? wind.deg : 0);
+
+        Clouds clouds = WeatherTypeConverter.toClouds(cursor.getString(15));
+        values.put("cloudiness", clouds != null ? clouds.all : 0);
+
+        Sys sys = WeatherTypeConverter.toSys(cursor.getString(16));
+        values.put("sysType", sys != null ? sys.type : 0);
+        values.put("sysId", sys != null ? sys.id : 0);
+        values.put("country", sys != null ? sys.country : null);
+        values.put("sunrise", sys != null ? sys.sunrise : 0);
+        values.put("sunset", sys != null ? sys.sunset : 0);
+
+        db.insert("weather_cache_v2", SQLiteDatabase.CONFLICT_REPLACE, values);
+
+        List<Weather> weatherList = WeatherTypeConverter.toWeatherList(cursor.getString(12));
+        for (WeatherConditionEntity condition : WeatherConditionEntity.fromWeatherList(dbId, weatherList)) {
+            ContentValues conditionValues = new ContentValues();
+            conditionValues.put("weatherDbId", condition.weatherDbId);
+            conditionValues.put("position", condition.position);
+            conditionValues.put("conditionId", condition.conditionId);
+            conditionValues.put("main", condition.main);
+            conditionValues.put("description", condition.description);
+            conditionValues.put("icon", condition.icon);
+            db.insert("weather_condition", SQLiteDatabase.CONFLICT_REPLACE, conditionValues);
+        }
+    }
+}
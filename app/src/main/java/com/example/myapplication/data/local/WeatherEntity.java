@@ -1,10 +1,12 @@
 package com.example.myapplication.data.local;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
-import androidx.room.TypeConverters;
 
-import com.example.myapplication.data.local.converter.WeatherTypeConverter;
+import com.example.myapplication.common.utils.GeoCell;
 import com.example.myapplication.data.model.Clouds;
 import com.example.myapplication.data.model.Coord;
 import com.example.myapplication.data.model.Main;
@@ -14,91 +16,203 @@ import com.example.myapplication.data.model.WeatherResponse;
 import com.example.myapplication.data.model.Wind;
 
 import java.util.List;
+import java.util.Objects;
 
-@Entity(tableName = "weather_cache")
-@TypeConverters(WeatherTypeConverter.class)
+@Entity(
+        tableName = "weather_cache",
+        indices = {
+                @Index(value = {"cell", "cachedAt"}),
+                @Index(value = {"cachedAt"})
+        }
+)
 public class WeatherEntity {
 
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
     @PrimaryKey(autoGenerate = true)
     public int dbId;
 
-    // Original API fields stored as JSON
+    // Top level API fields
     public long id;
-    public Coord coord;
-    public List<Weather> weather;
     public String base;
-    public Main main;
     public int visibility;
-    public Wind wind;
-    public Clouds clouds;
     public long dt;
-    public Sys sys;
     public int timezone;
     public String name;
     public int cod;
 
-     public double latitude;
+    // Coord
+    public double latitude;
     public double longitude;
+
+    // Quantized grid cell of (latitude, longitude), see GeoCell
+    @ColumnInfo(defaultValue = "0")
+    public long cell;
+
+    // Main
     public double temperature;
+    public double feelsLike;
+    public double tempMin;
+    public double tempMax;
+    public int pressure;
+    public int humidity;
+    public int seaLevel;
+    public int grndLevel;
+
+    // Wind
+    public double windSpeed;
+    public int windDeg;
+
+    // Clouds
+    public int cloudiness;
+
+    // Sys
+    public int sysType;
+    public int sysId;
+    public String country;
+    public long sunrise;
+    public long sunset;
+
     public long cachedAt;
 
+    // Days since epoch in the location's own timezone, set on insert, see dayBucketOf
+    @ColumnInfo(defaultValue = "0")
+    public long dayBucket;
+
+    // Stored in weather_condition, see WeatherConditionEntity
+    @Ignore
+    public List<Weather> weather;
+
+    // ETag of the response this row came from, recorded in sync_state on insert
+    @Ignore
+    public String etag;
+
     public WeatherEntity() {}
 
+    @Ignore
     public WeatherEntity(WeatherResponse response) {
-        // Copy all original fields
         this.id = response.id;
-        this.coord = response.coord;
-        this.weather = response.weather;
         this.base = response.base;
-        this.main = response.main;
         this.visibility = response.visibility;
-        this.wind = response.wind;
-        this.clouds = response.clouds;
         this.dt = response.dt;
-        this.sys = response.sys;
         this.timezone = response.timezone;
         this.name = response.name;
         this.cod = response.cod;
+        this.weather = response.weather;
 
-         if (response.coord != null) {
+        if (response.coord != null) {
             this.latitude = response.coord.lat;
             this.longitude = response.coord.lon;
         }
+        this.cell = GeoCell.of(this.latitude, this.longitude);
 
         if (response.main != null) {
             this.temperature = response.main.temp;
+            this.feelsLike = response.main.feels_like;
+            this.tempMin = response.main.temp_min;
+            this.tempMax = response.main.temp_max;
+            this.pressure = response.main.pressure;
+            this.humidity = response.main.humidity;
+            this.seaLevel = response.main.sea_level;
+            this.grndLevel = response.main.grnd_level;
         }
 
-        this.cachedAt = System.currentTimeMillis();
-    }
+        if (response.wind != null) {
+            this.windSpeed = response.wind.speed;
+            this.windDeg = response.wind.deg;
+        }
 
+        if (response.clouds != null) {
+            this.cloudiness = response.clouds.all;
+        }
 
+        if (response.sys != null) {
+            this.sysType = response.sys.type;
+            this.sysId = response.sys.id;
+            this.country = response.sys.country;
+            this.sunrise = response.sys.sunrise;
+            this.sunset = response.sys.sunset;
+        }
+
+        this.cachedAt = System.currentTimeMillis();
+    }
 
     public WeatherResponse toWeatherResponse() {
         WeatherResponse response = new WeatherResponse();
         response.id = this.id;
-        response.coord = this.coord;
-        response.weather = this.weather;
         response.base = this.base;
-        response.main = this.main;
         response.visibility = this.visibility;
-        response.wind = this.wind;
-        response.clouds = this.clouds;
         response.dt = this.dt;
-        response.sys = this.sys;
         response.timezone = this.timezone;
         response.name = this.name;
         response.cod = this.cod;
+        response.weather = this.weather;
+
+        Coord coord = new Coord();
+        coord.lat = this.latitude;
+        coord.lon = this.longitude;
+        response.coord = coord;
+
+        Main main = new Main();
+        main.temp = this.temperature;
+        main.feels_like = this.feelsLike;
+        main.temp_min = this.tempMin;
+        main.temp_max = this.tempMax;
+        main.pressure = this.pressure;
+        main.humidity = this.humidity;
+        main.sea_level = this.seaLevel;
+        main.grnd_level = this.grndLevel;
+        response.main = main;
+
+        Wind wind = new Wind();
+        wind.speed = this.windSpeed;
+        wind.deg = this.windDeg;
+        response.wind = wind;
+
+        Clouds clouds = new Clouds();
+        clouds.all = this.cloudiness;
+        response.clouds = clouds;
+
+        Sys sys = new Sys();
+        sys.type = this.sysType;
+        sys.id = this.sysId;
+        sys.country = this.country;
+        sys.sunrise = this.sunrise;
+        sys.sunset = this.sunset;
+        response.sys = sys;
+
         return response;
     }
 
 
+    /**
+     * Local calendar day of a timestamp, using the UTC offset (in seconds) reported by
+     * the API for the location rather than the device zone.
+     */
+    public static long dayBucketOf(long epochMillis, int utcOffsetSeconds) {
+        return Math.floorDiv(epochMillis / 1000 + utcOffsetSeconds, SECONDS_PER_DAY);
+    }
+
+    /**
+     * Hash of the observed values, ignoring when the row was cached. Two responses
+     * with the same hash carry the same weather.
+     */
+    public long contentHash() {
+        int conditionsHash = 0;
+        if (weather != null) {
+            for (Weather condition : weather) {
+                conditionsHash = 31 * conditionsHash + condition.id;
+            }
+        }
+        return Objects.hash(id, dt, temperature, feelsLike, tempMin, tempMax, pressure, humidity,
+                windSpeed, windDeg, cloudiness, visibility, sunrise, sunset, conditionsHash);
+    }
+
     public boolean matchesLocation(double lat, double lon) {
-        if (coord == null) return false;
-        return Math.abs(coord.lat - lat) < 0.01 && Math.abs(coord.lon - lon) < 0.01;
+        return Math.abs(latitude - lat) < 0.01 && Math.abs(longitude - lon) < 0.01;
     }
 
     public long getCacheAge() {
         return System.currentTimeMillis() - cachedAt;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+package com.example.myapplication.data.local;
+
+import androidx.room.Embedded;
+import androidx.room.Relation;
+
+import com.example.myapplication.data.model.Weather;
+import com.example.myapplication.data.model.WeatherResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class WeatherWithConditions {
+
+    @Embedded
+    public WeatherEntity entity;
+
+    @Relation(parentColumn = "dbId", entityColumn = "weatherDbId")
+    public List<WeatherConditionEntity> conditions;
+
+    public WeatherResponse toWeatherResponse() {
+        entity.weather = toWeatherList();
+        return entity.toWeatherResponse();
+    }
+
+    private List<Weather> toWeatherList() {
+        List<Weather> weatherList = new ArrayList<>();
+        if (conditions == null) return weatherList;
+
+        // Room does not guarantee child ordering, restore the API order
+        List<WeatherConditionEntity> ordered = new ArrayList<>(conditions);
+        Collections.sort(ordered, (a, b) -> Integer.compare(a.position, b.position));
+        for (WeatherConditionEntity condition : ordered) {
+            weatherList.add(condition.toWeather());
+        }
+        return weatherList;
+    }
+}
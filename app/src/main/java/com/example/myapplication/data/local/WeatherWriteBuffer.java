@@ -0,0 +1,138 @@
+package com.example.myapplication.data.local;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer in front of WeatherDao. Rows enqueued within one window are
+ * written by a single insertAll() call, so a burst of results costs one SQLite
+ * transaction and one commit instead of one per row. A batch is written early once
+ * it reaches maxBatchSize.
+ *
+ * Callers that need the rows on disk before moving on (end of a worker run, screen
+ * teardown) call flush() or flushAsync().
+ *
+ * A batch that fails to write goes back to the front of the queue and the window is
+ * armed again, so nothing the memory cache and sync_state already count is lost.
+ *
+ * Background writes run on the database tier. The timer only fires the window and hands
+ * the flush over, it never touches the database itself.
+ */
+public class WeatherWriteBuffer {
+    private static final String TAG = "WeatherWriteBuffer";
+
+    private final WeatherDao weatherDao;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final Executor dbExecutor;
+    private final ScheduledExecutorService timer;
+
+    private final Object lock = new Object();
+    private List<WeatherEntity> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public WeatherWriteBuffer(WeatherDao weatherDao, Executor dbExecutor, ScheduledExecutorService timer,
+                              long windowMillis, int maxBatchSize) {
+        if (windowMillis <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("windowMillis and maxBatchSize must be positive");
+        }
+        this.weatherDao = weatherDao;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.dbExecutor = dbExecutor;
+        this.timer = timer;
+    }
+
+    public void enqueue(WeatherEntity entity) {
+        synchronized (lock) {
+            pending.add(entity);
+            if (pending.size() >= maxBatchSize) {
+                cancelScheduledFlush();
+                flushAsync();
+            } else {
+                scheduleFlush();
+            }
+        }
+    }
+
+    public void enqueueAll(List<WeatherEntity> entities) {
+        for (WeatherEntity entity : entities) {
+            enqueue(entity);
+        }
+    }
+
+    /**
+     * Writes everything pending on the calling thread. Must not be called on the main thread.
+     * When the write fails the rows are queued again, ahead of anything enqueued since, and
+     * the exception is rethrown so the caller can retry its own work.
+     */
+    public void flush() {
+        List<WeatherEntity> batch;
+        synchronized (lock) {
+            cancelScheduledFlush();
+            if (pending.isEmpty()) return;
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+
+        try {
+            weatherDao.insertAll(batch);
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                batch.addAll(pending);
+                pending = batch;
+                scheduleFlush();
+            }
+            Log.e(TAG, "Error writing " + batch.size() + " buffered weather rows, kept for the next window", e);
+            throw e;
+        }
+    }
+
+    // For main thread callers such as ViewModel.onCleared(). A saturated database tier
+    // rejects main thread submitters, the rows then stay pending for the next window
+    public void flushAsync() {
+        try {
+            dbExecutor.execute(this::flushInBackground);
+        } catch (RejectedExecutionException e) {
+            synchronized (lock) {
+                Log.w(TAG, "Database tier busy, " + pending.size() + " rows wait for the next window");
+                scheduleFlush();
+            }
+        }
+    }
+
+    // Nobody waits on a background flush, a failed batch is already queued again by flush()
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    public int pendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    // Call with lock held
+    private void scheduleFlush() {
+        if (scheduledFlush == null) {
+            scheduledFlush = timer.schedule(this::flushAsync, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+}
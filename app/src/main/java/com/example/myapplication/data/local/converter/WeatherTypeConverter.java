@@ -8,6 +8,7 @@ import com.example.myapplication.data.model.Main;
 import com.example.myapplication.data.model.Sys;
 import com.example.myapplication.data.model.Weather;
 import com.example.myapplication.data.model.Wind;
+import com.example.myapplication.data.model.adapter.WeatherTypeAdapters;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
@@ -16,7 +17,8 @@ import java.util.List;
 
 public class WeatherTypeConverter {
 
-    private static final Gson gson = new Gson();
+    // Same instance the network layer uses, backed by the streaming adapters
+    private static final Gson gson = WeatherTypeAdapters.gson();
 
     // Coord converters
     @TypeConverter
@@ -0,0 +1,8 @@
+package com.example.myapplication.data.model;
+
+import java.util.List;
+
+public class GroupWeatherResponse {
+    public int cnt;
+    public List<WeatherResponse> list;
+}
@@ -0,0 +1,473 @@
+package com.example.myapplication.data.model.adapter;
+
+import com.example.myapplication.data.model.Clouds;
+import com.example.myapplication.data.model.Coord;
+import com.example.myapplication.data.model.GroupWeatherResponse;
+import com.example.myapplication.data.model.Main;
+import com.example.myapplication.data.model.Sys;
+import com.example.myapplication.data.model.Weather;
+import com.example.myapplication.data.model.WeatherResponse;
+import com.example.myapplication.data.model.Wind;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written streaming adapters for the OpenWeather models. They read and write
+ * fields directly with JsonReader / JsonWriter, so parsing needs no reflection and
+ * allocates only the model objects. Unknown fields are skipped, missing or null fields
+ * keep their Java defaults, same as the reflective adapters they replace.
+ *
+ * Use {@link #gson()} everywhere a Gson is needed so all paths share one instance.
+ */
+public final class WeatherTypeAdapters {
+
+    private WeatherTypeAdapters() {}
+
+    public static Gson gson() {
+        return GSON;
+    }
+
+    public static GsonBuilder register(GsonBuilder builder) {
+        return builder
+                .registerTypeAdapter(WeatherResponse.class, WEATHER_RESPONSE)
+                .registerTypeAdapter(Coord.class, COORD)
+                .registerTypeAdapter(Weather.class, WEATHER)
+                .registerTypeAdapter(Main.class, MAIN)
+                .registerTypeAdapter(Wind.class, WIND)
+                .registerTypeAdapter(Clouds.class, CLOUDS)
+                .registerTypeAdapter(Sys.class, SYS)
+                .registerTypeAdapter(GroupWeatherResponse.class, GROUP_WEATHER_RESPONSE);
+    }
+
+    static final TypeAdapter<Coord> COORD = new TypeAdapter<Coord>() {
+        @Override
+        public void write(JsonWriter out, Coord value) throws IOException {
+            out.beginObject();
+            out.name("lon").value(value.lon);
+            out.name("lat").value(value.lat);
+            out.endObject();
+        }
+
+        @Override
+        public Coord read(JsonReader in) throws IOException {
+            Coord coord = new Coord();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "lon":
+                        coord.lon = nextDouble(in, coord.lon);
+                        break;
+                    case "lat":
+                        coord.lat = nextDouble(in, coord.lat);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return coord;
+        }
+    }.nullSafe();
+
+    static final TypeAdapter<Weather> WEATHER = new TypeAdapter<Weather>() {
+        @Override
+        public void write(JsonWriter out, Weather value) throws IOException {
+            out.beginObject();
+            out.name("id").value(value.id);
+            out.name("main").value(value.main);
+            out.name("description").value(value.description);
+            out.name("icon").value(value.icon);
+            out.endObject();
+        }
+
+        @Override
+        public Weather read(JsonReader in) throws IOException {
+            Weather weather = new Weather();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        weather.id = nextInt(in, weather.id);
+                        break;
+                    case "main":
+                        weather.main = nextStringOrNull(in);
+                        break;
+                    case "description":
+                        weather.description = nextStringOrNull(in);
+                        break;
+                    case "icon":
+                        weather.icon = nextStringOrNull(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return weather;
+        }
+    }.nullSafe();
+
+    static final TypeAdapter<Main> MAIN = new TypeAdapter<Main>() {
+        @Override
+        public void write(JsonWriter out, Main value) throws IOException {
+            out.beginObject();
+            out.name("temp").value(value.temp);
+            out.name("feels_like").value(value.feels_like);
+            out.name("temp_min").value(value.temp_min);
+            out.name("temp_max").value(value.temp_max);
+            out.name("pressure").value(value.pressure);
+            out.name("humidity").value(value.humidity);
+            out.name("sea_level").value(value.sea_level);
+            out.name("grnd_level").value(value.grnd_level);
+            out.endObject();
+        }
+
+        @Override
+        public Main read(JsonReader in) throws IOException {
+            Main main = new Main();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "temp":
+                        main.temp = nextDouble(in, main.temp);
+                        break;
+                    case "feels_like":
+                        main.feels_like = nextDouble(in, main.feels_like);
+                        break;
+                    case "temp_min":
+                        main.temp_min = nextDouble(in, main.temp_min);
+                        break;
+                    case "temp_max":
+                        main.temp_max = nextDouble(in, main.temp_max);
+                        break;
+                    case "pressure":
+                        main.pressure = nextInt(in, main.pressure);
+                        break;
+                    case "humidity":
+                        main.humidity = nextInt(in, main.humidity);
+                        break;
+                    case "sea_level":
+                        main.sea_level = nextInt(in, main.sea_level);
+                        break;
+                    case "grnd_level":
+                        main.grnd_level = nextInt(in, main.grnd_level);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return main;
+        }
+    }.nullSafe();
+
+    static final TypeAdapter<Wind> WIND = new TypeAdapter<Wind>() {
+        @Override
+        public void write(JsonWriter out, Wind value) throws IOException {
+            out.beginObject();
+            out.name("speed").value(value.speed);
+            out.name("deg").value(value.deg);
+            out.endObject();
+        }
+
+        @Override
+        public Wind read(JsonReader in) throws IOException {
+            Wind wind = new Wind();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "speed":
+                        wind.speed = nextDouble(in, wind.speed);
+                        break;
+                    case "deg":
+                        wind.deg = nextInt(in, wind.deg);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return wind;
+        }
+    }.nullSafe();
+
+    static final TypeAdapter<Clouds> CLOUDS = new TypeAdapter<Clouds>() {
+        @Override
+        public void write(JsonWriter out, Clouds value) throws IOException {
+            out.beginObject();
+            out.name("all").value(value.all);
+            out.endObject();
+        }
+
+        @Override
+        public Clouds read(JsonReader in) throws IOException {
+            Clouds clouds = new Clouds();
+            in.beginObject();
+            while (in.hasNext()) {
+                if ("all".equals(in.nextName())) {
+                    clouds.all = nextInt(in, clouds.all);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return clouds;
+        }
+    }.nullSafe();
+
+    static final TypeAdapter<Sys> SYS = new TypeAdapter<Sys>() {
+        @Override
+        public void write(JsonWriter out, Sys value) throws IOException {
+            out.beginObject();
+            out.name("type").value(value.type);
+            out.name("id").value(value.id);
+            out.name("country").value(value.country);
+            out.name("sunrise").value(value.sunrise);
+            out.name("sunset").value(value.sunset);
+            out.endObject();
+        }
+
+        @Override
+        public Sys read(JsonReader in) throws IOException {
+            Sys sys = new Sys();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "type":
+                        sys.type = nextInt(in, sys.type);
+                        break;
+                    case "id":
+                        sys.id = nextInt(in, sys.id);
+                        break;
+                    case "country":
+                        sys.country = nextStringOrNull(in);
+                        break;
+                    case "sunrise":
+                        sys.sunrise = nextLong(in, sys.sunrise);
+                        break;
+                    case "sunset":
+                        sys.sunset = nextLong(in, sys.sunset);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return sys;
+        }
+    }.nullSafe();
+
+    // Nested objects go straight to the adapters above instead of through Gson lookups
+    static final TypeAdapter<WeatherResponse> WEATHER_RESPONSE = new TypeAdapter<WeatherResponse>() {
+        @Override
+        public void write(JsonWriter out, WeatherResponse value) throws IOException {
+            out.beginObject();
+            out.name("id").value(value.id);
+            out.name("coord");
+            COORD.write(out, value.coord);
+            out.name("weather");
+            writeWeatherList(out, value.weather);
+            out.name("base").value(value.base);
+            out.name("main");
+            MAIN.write(out, value.main);
+            out.name("visibility").value(value.visibility);
+            out.name("wind");
+            WIND.write(out, value.wind);
+            out.name("clouds");
+            CLOUDS.write(out, value.clouds);
+            out.name("dt").value(value.dt);
+            out.name("sys");
+            SYS.write(out, value.sys);
+            out.name("timezone").value(value.timezone);
+            out.name("name").value(value.name);
+            out.name("cod").value(value.cod);
+            out.endObject();
+        }
+
+        @Override
+        public WeatherResponse read(JsonReader in) throws IOException {
+            WeatherResponse response = new WeatherResponse();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        response.id = nextLong(in, response.id);
+                        break;
+                    case "coord":
+                        response.coord = COORD.read(in);
+                        break;
+                    case "weather":
+                        response.weather = readWeatherList(in);
+                        break;
+                    case "base":
+                        response.base = nextStringOrNull(in);
+                        break;
+                    case "main":
+                        response.main = MAIN.read(in);
+                        break;
+                    case "visibility":
+                        response.visibility = nextInt(in, response.visibility);
+                        break;
+                    case "wind":
+                        response.wind = WIND.read(in);
+                        break;
+                    case "clouds":
+                        response.clouds = CLOUDS.read(in);
+                        break;
+                    case "dt":
+                        response.dt = nextLong(in, response.dt);
+                        break;
+                    case "sys":
+                        response.sys = SYS.read(in);
+                        break;
+                    case "timezone":
+                        response.timezone = nextInt(in, response.timezone);
+                        break;
+                    case "name":
+                        response.name = nextStringOrNull(in);
+                        break;
+                    case "cod":
+                        response.cod = nextInt(in, response.cod);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return response;
+        }
+    }.nullSafe();
+
+    static final TypeAdapter<GroupWeatherResponse> GROUP_WEATHER_RESPONSE = new TypeAdapter<GroupWeatherResponse>() {
+        @Override
+        public void write(JsonWriter out, GroupWeatherResponse value) throws IOException {
+            out.beginObject();
+            out.name("cnt").value(value.cnt);
+            out.name("list");
+            if (value.list == null) {
+                out.nullValue();
+            } else {
+                out.beginArray();
+                for (WeatherResponse response : value.list) {
+                    WEATHER_RESPONSE.write(out, response);
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public GroupWeatherResponse read(JsonReader in) throws IOException {
+            GroupWeatherResponse group = new GroupWeatherResponse();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "cnt":
+                        group.cnt = nextInt(in, group.cnt);
+                        break;
+                    case "list":
+                        group.list = readResponseList(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return group;
+        }
+    }.nullSafe();
+
+    // Declared after the adapters, static fields initialize in textual order
+    private static final Gson GSON = register(new GsonBuilder()).create();
+
+    private static List<Weather> readWeatherList(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        List<Weather> weatherList = new ArrayList<>(1);
+        in.beginArray();
+        while (in.hasNext()) {
+            weatherList.add(WEATHER.read(in));
+        }
+        in.endArray();
+        return weatherList;
+    }
+
+    private static List<WeatherResponse> readResponseList(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        List<WeatherResponse> responses = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            responses.add(WEATHER_RESPONSE.read(in));
+        }
+        in.endArray();
+        return responses;
+    }
+
+    private static void writeWeatherList(JsonWriter out, List<Weather> weatherList) throws IOException {
+        if (weatherList == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginArray();
+        for (Weather weather : weatherList) {
+            WEATHER.write(out, weather);
+        }
+        out.endArray();
+    }
+
+    // A JSON null leaves a primitive field as it was, like the reflective adapters
+    private static double nextDouble(JsonReader in, double current) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.skipValue();
+            return current;
+        }
+        return in.nextDouble();
+    }
+
+    private static int nextInt(JsonReader in, int current) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.skipValue();
+            return current;
+        }
+        return in.nextInt();
+    }
+
+    private static long nextLong(JsonReader in, long current) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.skipValue();
+            return current;
+        }
+        return in.nextLong();
+    }
+
+    private static String nextStringOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+}
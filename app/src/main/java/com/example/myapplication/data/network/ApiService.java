@@ -1,17 +1,43 @@
 package com.example.myapplication.data.network;
 
+import com.example.myapplication.data.model.GroupWeatherResponse;
 import com.example.myapplication.data.model.WeatherResponse;
 
- import retrofit2.Call;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 public interface ApiService {
+    // cacheControl is sent as the request's Cache-Control header, CacheControl.FORCE_NETWORK
+    // skips a still fresh HTTP cache entry. Null leaves the cache policy to the response headers
     @GET("weather")
     Call<WeatherResponse> getCurrentWeather(
+            @Query("lat") double lat,
+            @Query("lon") double lon,
+            @Query("appid") String apiKey,
+            @Query("units") String units,
+            @Header("Cache-Control") String cacheControl
+    );
+
+    // Raw body, parsed incrementally by ForecastParser
+    @Streaming
+    @GET("forecast")
+    Call<ResponseBody> getForecast(
             @Query("lat") double lat,
             @Query("lon") double lon,
             @Query("appid") String apiKey,
             @Query("units") String units
     );
-}
\ No newline at end of file
+
+    // Current weather for up to OPENWEATHER_GROUP_MAX_IDS city ids, comma separated
+    @GET("group")
+    Call<GroupWeatherResponse> getCurrentWeatherForCities(
+            @Query("id") String cityIds,
+            @Query("appid") String apiKey,
+            @Query("units") String units,
+            @Header("Cache-Control") String cacheControl
+    );
+}
@@ -0,0 +1,50 @@
+package com.example.myapplication.data.network;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Network interceptor that gives successful responses a freshness lifetime when
+ * the server sends weak or no cache headers, so the OkHttp disk cache can store
+ * them. Validators (ETag / Last-Modified) are left untouched, which lets OkHttp
+ * revalidate with a conditional request once the lifetime has passed.
+ */
+public class CachePolicyInterceptor implements Interceptor {
+
+    private final long maxAgeSeconds;
+
+    public CachePolicyInterceptor(long maxAgeSeconds) {
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+
+        if (!response.isSuccessful() || !hasWeakCacheHeaders(response)) {
+            return response;
+        }
+
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .removeHeader("Expires")
+                .header("Cache-Control", "public, max-age=" + maxAgeSeconds)
+                .build();
+    }
+
+    private boolean hasWeakCacheHeaders(Response response) {
+        CacheControl cacheControl = response.cacheControl();
+        if (cacheControl.noStore()) {
+            return false;
+        }
+        return cacheControl.maxAgeSeconds() <= 0
+                && cacheControl.sMaxAgeSeconds() <= 0
+                && response.header("Expires") == null;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.myapplication.data.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Single-flight coalescing for Retrofit calls. Callers that ask for the same key while
+ * a call is in flight are attached to it instead of starting their own request, and
+ * every one of them receives the shared response or failure.
+ *
+ * Work that must happen once per upstream response, such as persisting it, belongs in
+ * the onUpstreamResponse hook rather than in a waiter: the hook runs whichever
+ * waiters are still attached, even after the one that started the call detached.
+ */
+public class CallCoalescer<K, T> {
+
+    private final ConcurrentHashMap<K, Flight<T>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * @return true if a new upstream call was started, false if the caller joined one in flight
+     */
+    public boolean enqueue(K key, Supplier<Call<T>> callFactory, Callback<T> callback) {
+        return enqueue(key, callFactory, null, callback);
+    }
+
+    /**
+     * @param onUpstreamResponse runs once when the upstream response arrives, before the
+     *                           waiters. Only the hook of the caller that starts the call is
+     *                           kept, callers joining a flight share it
+     * @return true if a new upstream call was started, false if the caller joined one in flight
+     */
+    public boolean enqueue(K key, Supplier<Call<T>> callFactory,
+                           Consumer<Response<T>> onUpstreamResponse, Callback<T> callback) {
+        while (true) {
+            Flight<T> existing = flights.get(key);
+            if (existing != null) {
+                if (existing.addWaiter(callback)) {
+                    return false;
+                }
+                // Completed between get() and addWaiter(), it is already out of the map
+                continue;
+            }
+
+            Flight<T> flight = new Flight<>(onUpstreamResponse);
+            flight.addWaiter(callback);
+            if (flights.putIfAbsent(key, flight) == null) {
+                start(key, flight, callFactory);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Detaches one waiter, e.g. because its caller's scope was cancelled. The shared
+     * call is only cancelled once no waiter is left on it.
+     *
+     * @return true if the upstream call was cancelled
+     */
+    public boolean detach(K key, Callback<T> callback) {
+        Flight<T> flight = flights.get(key);
+        if (flight == null || !flight.removeWaiter(callback)) {
+            return false;
+        }
+        flights.remove(key, flight);
+        Call<T> call = flight.call;
+        if (call != null) {
+            call.cancel();
+        }
+        return true;
+    }
+
+    public int inFlightCount() {
+        return flights.size();
+    }
+
+    private void start(K key, Flight<T> flight, Supplier<Call<T>> callFactory) {
+        Call<T> call;
+        try {
+            call = callFactory.get();
+        } catch (RuntimeException e) {
+            flights.remove(key, flight);
+            throw e;
+        }
+        flight.call = call;
+
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                flights.remove(key, flight);
+                if (flight.onUpstreamResponse != null) {
+                    flight.onUpstreamResponse.accept(response);
+                }
+                for (Callback<T> waiter : flight.complete()) {
+                    waiter.onResponse(call, response);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                flights.remove(key, flight);
+                for (Callback<T> waiter : flight.complete()) {
+                    waiter.onFailure(call, t);
+                }
+            }
+        });
+    }
+
+    private static final class Flight<T> {
+        private final List<Callback<T>> waiters = new ArrayList<>();
+        private boolean completed;
+        final Consumer<Response<T>> onUpstreamResponse;
+        volatile Call<T> call;
+
+        Flight(Consumer<Response<T>> onUpstreamResponse) {
+            this.onUpstreamResponse = onUpstreamResponse;
+        }
+
+        synchronized boolean addWaiter(Callback<T> callback) {
+            if (completed) return false;
+            waiters.add(callback);
+            return true;
+        }
+
+        // Returns true when this was the last waiter, the flight is then abandoned
+        synchronized boolean removeWaiter(Callback<T> callback) {
+            if (completed || !waiters.remove(callback)) return false;
+            if (!waiters.isEmpty()) return false;
+            completed = true;
+            return true;
+        }
+
+        synchronized List<Callback<T>> complete() {
+            completed = true;
+            return new ArrayList<>(waiters);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.myapplication.data.network;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks in-flight requests by cancellation scope, one scope per ViewModel or other
+ * caller. Cancelling a scope only touches the requests started through it, so one
+ * screen going away never cancels another screen's calls.
+ *
+ * A request is tracked rather than a raw Call because calls can be shared through
+ * CallCoalescer: the request's cancel action decides what cancelling means, e.g.
+ * detaching its waiter and leaving the shared call to the other waiters.
+ *
+ * Safe to use from any thread.
+ */
+public class CallRegistry {
+    private static final String TAG = "CallRegistry";
+
+    private final Set<Scope> scopes = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextScopeId = new AtomicInteger();
+
+    public Scope openScope(String name) {
+        Scope scope = new Scope(name + "#" + nextScopeId.incrementAndGet());
+        scopes.add(scope);
+        return scope;
+    }
+
+    // Cancels every open scope, for process wide teardown only
+    public void cancelAll() {
+        for (Scope scope : scopes) {
+            scope.cancel();
+        }
+    }
+
+    public List<String> describeScopes() {
+        List<String> descriptions = new ArrayList<>();
+        for (Scope scope : scopes) {
+            descriptions.add(scope.toString());
+        }
+        return descriptions;
+    }
+
+    public final class Scope {
+        private final String name;
+        private final Set<Request> inFlight = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger started = new AtomicInteger();
+        private final AtomicInteger finished = new AtomicInteger();
+        private final AtomicInteger cancelled = new AtomicInteger();
+        private volatile boolean closed;
+
+        private Scope(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Registers a new request. On a closed scope the request comes back already
+         * cancelled, so late callers (e.g. a database read finishing after onCleared)
+         * drop their work instead of starting a call.
+         */
+        public Request start() {
+            Request request = new Request(this);
+            started.incrementAndGet();
+            inFlight.add(request);
+            if (closed) {
+                request.cancel();
+            }
+            return request;
+        }
+
+        // Cancels what is in flight, the scope stays usable
+        public void cancel() {
+            for (Request request : inFlight) {
+                request.cancel();
+            }
+        }
+
+        // Cancels what is in flight and rejects anything started afterwards
+        public void close() {
+            if (closed) return;
+            closed = true;
+            cancel();
+            scopes.remove(this);
+            Log.d(TAG, "Closed " + this);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int startedCount() {
+            return started.get();
+        }
+
+        public int finishedCount() {
+            return finished.get();
+        }
+
+        public int cancelledCount() {
+            return cancelled.get();
+        }
+
+        public int inFlightCount() {
+            return inFlight.size();
+        }
+
+        @Override
+        public String toString() {
+            return name + ": started " + started.get() + ", finished " + finished.get()
+                    + ", cancelled " + cancelled.get() + ", in flight " + inFlight.size();
+        }
+    }
+
+    /**
+     * One request in a scope. Exactly one of finish() or cancellation wins, whichever
+     * comes first, and the scope counts it once.
+     */
+    public static final class Request {
+        private final Scope scope;
+        private boolean done;
+        private boolean cancelled;
+        private Runnable cancelAction;
+
+        private Request(Scope scope) {
+            this.scope = scope;
+        }
+
+        /**
+         * What to do when the scope cancels this request. Runs straight away if it
+         * was cancelled before the action was set.
+         */
+        public void onCancel(Runnable action) {
+            boolean runNow;
+            synchronized (this) {
+                cancelAction = action;
+                runNow = cancelled;
+            }
+            if (runNow) {
+                action.run();
+            }
+        }
+
+        /**
+         * Marks the request finished. Returns false if it was cancelled first, in which
+         * case the caller must drop the result.
+         */
+        public boolean finish() {
+            synchronized (this) {
+                if (done) return !cancelled;
+                done = true;
+            }
+            scope.inFlight.remove(this);
+            scope.finished.incrementAndGet();
+            return true;
+        }
+
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void cancel() {
+            Runnable action;
+            synchronized (this) {
+                if (done) return;
+                done = true;
+                cancelled = true;
+                action = cancelAction;
+            }
+            scope.inFlight.remove(this);
+            scope.cancelled.incrementAndGet();
+            if (action != null) {
+                action.run();
+            }
+        }
+    }
+}
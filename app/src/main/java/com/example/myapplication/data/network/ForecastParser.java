@@ -0,0 +1,208 @@
+package com.example.myapplication.data.network;
+
+import com.example.myapplication.data.local.ForecastEntity;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a /forecast body token by token straight into ForecastEntity rows, without
+ * binding the 40-entry response to an intermediate object graph first. A null value
+ * leaves its field at the entity default.
+ */
+public final class ForecastParser {
+
+    private ForecastParser() {}
+
+    public static List<ForecastEntity> parse(Reader body, long cell, double latitude, double longitude,
+                                             long fetchedAt) throws IOException {
+        List<ForecastEntity> entries = new ArrayList<>(40);
+        String cityName = null;
+        int timezone = 0;
+
+        JsonReader in = new JsonReader(body);
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "list":
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        entries.add(readEntry(in));
+                    }
+                    in.endArray();
+                    break;
+                case "city":
+                    // city follows list in the payload, its fields are applied below
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        String name = in.nextName();
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else if ("name".equals(name)) {
+                            cityName = in.nextString();
+                        } else if ("timezone".equals(name)) {
+                            timezone = in.nextInt();
+                        } else {
+                            in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+
+        for (ForecastEntity entry : entries) {
+            entry.cell = cell;
+            entry.latitude = latitude;
+            entry.longitude = longitude;
+            entry.fetchedAt = fetchedAt;
+            entry.cityName = cityName;
+            entry.timezone = timezone;
+        }
+        return entries;
+    }
+
+    private static ForecastEntity readEntry(JsonReader in) throws IOException {
+        ForecastEntity entry = new ForecastEntity();
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "dt":
+                    entry.targetTime = in.nextLong();
+                    break;
+                case "main":
+                    readMain(in, entry);
+                    break;
+                case "weather":
+                    readFirstCondition(in, entry);
+                    break;
+                case "clouds":
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        String name = in.nextName();
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else if ("all".equals(name)) {
+                            entry.cloudiness = in.nextInt();
+                        } else {
+                            in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                    break;
+                case "wind":
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        String name = in.nextName();
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else if ("speed".equals(name)) {
+                            entry.windSpeed = in.nextDouble();
+                        } else if ("deg".equals(name)) {
+                            entry.windDeg = in.nextInt();
+                        } else {
+                            in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                    break;
+                case "pop":
+                    entry.pop = in.nextDouble();
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return entry;
+    }
+
+    private static void readMain(JsonReader in, ForecastEntity entry) throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "temp":
+                    entry.temperature = in.nextDouble();
+                    break;
+                case "feels_like":
+                    entry.feelsLike = in.nextDouble();
+                    break;
+                case "temp_min":
+                    entry.tempMin = in.nextDouble();
+                    break;
+                case "temp_max":
+                    entry.tempMax = in.nextDouble();
+                    break;
+                case "pressure":
+                    entry.pressure = in.nextInt();
+                    break;
+                case "humidity":
+                    entry.humidity = in.nextInt();
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+    }
+
+    private static void readFirstCondition(JsonReader in, ForecastEntity entry) throws IOException {
+        in.beginArray();
+        boolean first = true;
+        while (in.hasNext()) {
+            if (!first) {
+                in.skipValue();
+                continue;
+            }
+            first = false;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "id":
+                        entry.conditionId = in.nextInt();
+                        break;
+                    case "main":
+                        entry.conditionMain = in.nextString();
+                        break;
+                    case "description":
+                        entry.description = in.nextString();
+                        break;
+                    case "icon":
+                        entry.icon = in.nextString();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+        }
+        in.endArray();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.myapplication.data.network;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Application interceptor that classifies every call by how the OkHttp cache served it.
+ */
+public class HttpCacheMetrics implements Interceptor {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong conditionalHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        record(response);
+        return response;
+    }
+
+    private void record(Response response) {
+        Response cacheResponse = response.cacheResponse();
+        Response networkResponse = response.networkResponse();
+
+        if (cacheResponse != null && networkResponse == null) {
+            hits.incrementAndGet();
+        } else if (cacheResponse != null && networkResponse.code() == 304) {
+            // Revalidated with If-None-Match / If-Modified-Since, body came from disk
+            conditionalHits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getConditionalHitCount() {
+        return conditionalHits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "HttpCacheMetrics{" +
+                "hits=" + hits.get() +
+                ", conditionalHits=" + conditionalHits.get() +
+                ", misses=" + misses.get() +
+                '}';
+    }
+}
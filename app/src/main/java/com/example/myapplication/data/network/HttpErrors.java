@@ -0,0 +1,24 @@
+package com.example.myapplication.data.network;
+
+import retrofit2.HttpException;
+
+/**
+ * Tells failures worth retrying from those that fail the same way every time. HTTP
+ * errors are carried as a retrofit2.HttpException, directly or as a cause.
+ */
+public final class HttpErrors {
+
+    private HttpErrors() {}
+
+    // Client errors other than 408 / 429 (bad key, unknown city) never succeed on a retry.
+    // Network failures, timeouts and 5xx are retryable, as is a missing error
+    public static boolean isRetryable(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof HttpException) {
+                int code = ((HttpException) t).code();
+                return code < 400 || code >= 500 || code == 408 || code == 429;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.myapplication.data.network;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * App-wide network timings and transfer sizes, fed by NetworkMetricsEventListener
+ * and NetworkMetricsInterceptor. Timings are in milliseconds, sizes in bytes.
+ */
+public class NetworkMetrics {
+
+    private final AtomicHistogram dnsMillis = new AtomicHistogram("ms");
+    private final AtomicHistogram connectMillis = new AtomicHistogram("ms");
+    private final AtomicHistogram tlsMillis = new AtomicHistogram("ms");
+    private final AtomicHistogram timeToFirstByteMillis = new AtomicHistogram("ms");
+    private final AtomicHistogram callMillis = new AtomicHistogram("ms");
+    private final AtomicHistogram bytesOut = new AtomicHistogram("B");
+    private final AtomicHistogram bytesIn = new AtomicHistogram("B");
+
+    private final AtomicLong successfulCalls = new AtomicLong();
+    private final AtomicLong clientErrors = new AtomicLong();
+    private final AtomicLong serverErrors = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+
+    public AtomicHistogram getDnsMillis() {
+        return dnsMillis;
+    }
+
+    public AtomicHistogram getConnectMillis() {
+        return connectMillis;
+    }
+
+    public AtomicHistogram getTlsMillis() {
+        return tlsMillis;
+    }
+
+    public AtomicHistogram getTimeToFirstByteMillis() {
+        return timeToFirstByteMillis;
+    }
+
+    public AtomicHistogram getCallMillis() {
+        return callMillis;
+    }
+
+    public AtomicHistogram getBytesOut() {
+        return bytesOut;
+    }
+
+    public AtomicHistogram getBytesIn() {
+        return bytesIn;
+    }
+
+    void recordResponseCode(int code) {
+        if (code >= 500) {
+            serverErrors.incrementAndGet();
+        } else if (code >= 400) {
+            clientErrors.incrementAndGet();
+        } else {
+            successfulCalls.incrementAndGet();
+        }
+    }
+
+    void recordFailure() {
+        failedCalls.incrementAndGet();
+    }
+
+    public long getSuccessfulCalls() {
+        return successfulCalls.get();
+    }
+
+    public long getClientErrors() {
+        return clientErrors.get();
+    }
+
+    public long getServerErrors() {
+        return serverErrors.get();
+    }
+
+    public long getFailedCalls() {
+        return failedCalls.get();
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkMetrics{" +
+                "\n  dns: " + dnsMillis +
+                "\n  connect: " + connectMillis +
+                "\n  tls: " + tlsMillis +
+                "\n  ttfb: " + timeToFirstByteMillis +
+                "\n  call: " + callMillis +
+                "\n  bytesOut: " + bytesOut +
+                "\n  bytesIn: " + bytesIn +
+                "\n  ok=" + successfulCalls.get() +
+                ", 4xx=" + clientErrors.get() +
+                ", 5xx=" + serverErrors.get() +
+                ", failed=" + failedCalls.get() +
+                "\n}";
+    }
+}
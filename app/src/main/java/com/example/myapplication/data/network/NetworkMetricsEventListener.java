@@ -0,0 +1,113 @@
+package com.example.myapplication.data.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Per-call OkHttp EventListener recording DNS, connect, TLS and time-to-first-byte
+ * into NetworkMetrics. A new instance is created for each call by the Factory, so
+ * the start timestamps need no synchronization.
+ */
+public class NetworkMetricsEventListener extends EventListener {
+
+    public static final class Factory implements EventListener.Factory {
+        private final NetworkMetrics metrics;
+
+        public Factory(NetworkMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @NonNull
+        @Override
+        public EventListener create(@NonNull Call call) {
+            return new NetworkMetricsEventListener(metrics);
+        }
+    }
+
+    private final NetworkMetrics metrics;
+
+    private long dnsStartNanos;
+    private long connectStartNanos;
+    private long secureConnectStartNanos;
+    private long requestSentNanos;
+
+    private NetworkMetricsEventListener(NetworkMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+        dnsStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(@NonNull Call call, @NonNull String domainName, @NonNull List<InetAddress> inetAddressList) {
+        metrics.getDnsMillis().record(millisSince(dnsStartNanos));
+    }
+
+    @Override
+    public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress, @NonNull Proxy proxy) {
+        connectStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(@NonNull Call call) {
+        secureConnectStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+        metrics.getTlsMillis().record(millisSince(secureConnectStartNanos));
+    }
+
+    @Override
+    public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                           @NonNull Proxy proxy, @Nullable Protocol protocol) {
+        metrics.getConnectMillis().record(millisSince(connectStartNanos));
+    }
+
+    @Override
+    public void requestHeadersEnd(@NonNull Call call, @NonNull Request request) {
+        requestSentNanos = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd(@NonNull Call call, long byteCount) {
+        requestSentNanos = System.nanoTime();
+        metrics.getBytesOut().record(byteCount);
+    }
+
+    @Override
+    public void responseHeadersStart(@NonNull Call call) {
+        if (requestSentNanos != 0) {
+            metrics.getTimeToFirstByteMillis().record(millisSince(requestSentNanos));
+        }
+    }
+
+    @Override
+    public void responseHeadersEnd(@NonNull Call call, @NonNull Response response) {
+        // Reset so a follow-up (redirect, retry) measures its own first byte
+        requestSentNanos = 0;
+    }
+
+    @Override
+    public void responseBodyEnd(@NonNull Call call, long byteCount) {
+        metrics.getBytesIn().record(byteCount);
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.myapplication.data.network;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Application interceptor recording end-to-end call duration and the outcome of
+ * each call. Only headers are inspected, bodies are never buffered.
+ */
+public class NetworkMetricsInterceptor implements Interceptor {
+
+    private final NetworkMetrics metrics;
+
+    public NetworkMetricsInterceptor(NetworkMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        long startNanos = System.nanoTime();
+        try {
+            Response response = chain.proceed(chain.request());
+            metrics.recordResponseCode(response.code());
+            return response;
+        } catch (IOException e) {
+            metrics.recordFailure();
+            throw e;
+        } finally {
+            metrics.getCallMillis().record((System.nanoTime() - startNanos) / 1_000_000L);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.myapplication.data.network;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import okhttp3.logging.HttpLoggingInterceptor;
+
+/**
+ * Body-level logging for a sampled share of calls, and only when enabled. Calls that
+ * are not sampled pass straight through without any buffering.
+ */
+public class SampledLoggingInterceptor implements Interceptor {
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final HttpLoggingInterceptor bodyLogger;
+
+    public SampledLoggingInterceptor(boolean enabled, double sampleRate) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.bodyLogger = new HttpLoggingInterceptor();
+        this.bodyLogger.setLevel(HttpLoggingInterceptor.Level.BODY);
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        if (enabled && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            return bodyLogger.intercept(chain);
+        }
+        return chain.proceed(chain.request());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.myapplication.data.repository;
+
+import androidx.lifecycle.MutableLiveData;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One result stream per location key, so requests for different places never
+ * overwrite each other. Streams are held weakly: once no subscriber (ViewModel,
+ * in-flight callback) references a stream it is collected and dropped from the map.
+ */
+public class ResultStreamRegistry<T> {
+
+    private final ConcurrentHashMap<Long, KeyedReference<T>> streams = new ConcurrentHashMap<>();
+    private final ReferenceQueue<MutableLiveData<T>> collected = new ReferenceQueue<>();
+
+    public MutableLiveData<T> obtain(long key) {
+        purgeCollected();
+
+        while (true) {
+            KeyedReference<T> reference = streams.get(key);
+            MutableLiveData<T> stream = reference != null ? reference.get() : null;
+            if (stream != null) {
+                return stream;
+            }
+
+            MutableLiveData<T> created = new MutableLiveData<>();
+            KeyedReference<T> createdReference = new KeyedReference<>(key, created, collected);
+            boolean installed = reference == null
+                    ? streams.putIfAbsent(key, createdReference) == null
+                    : streams.replace(key, reference, createdReference);
+            if (installed) {
+                return created;
+            }
+        }
+    }
+
+    public int size() {
+        purgeCollected();
+        return streams.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void purgeCollected() {
+        Reference<? extends MutableLiveData<T>> reference;
+        while ((reference = collected.poll()) != null) {
+            KeyedReference<T> keyed = (KeyedReference<T>) reference;
+            streams.remove(keyed.key, keyed);
+        }
+    }
+
+    private static final class KeyedReference<T> extends WeakReference<MutableLiveData<T>> {
+        final long key;
+
+        KeyedReference(long key, MutableLiveData<T> referent, ReferenceQueue<MutableLiveData<T>> queue) {
+            super(referent, queue);
+            this.key = key;
+        }
+    }
+}
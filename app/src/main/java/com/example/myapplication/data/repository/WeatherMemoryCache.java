@@ -0,0 +1,130 @@
+package com.example.myapplication.data.repository;
+
+import com.example.myapplication.common.utils.GeoCell;
+import com.example.myapplication.data.model.WeatherResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU of recent current-weather responses keyed by GeoCell, so repeated
+ * requests for the same place within the TTL are answered without Room or OkHttp.
+ * All map access is guarded by the instance lock; counters are lock free.
+ */
+public class WeatherMemoryCache {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LinkedHashMap<Long, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public WeatherMemoryCache(long ttlMillis, int maxEntries) {
+        if (ttlMillis <= 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException("ttlMillis and maxEntries must be positive");
+        }
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > WeatherMemoryCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public WeatherResponse get(double latitude, double longitude) {
+        long cell = GeoCell.of(latitude, longitude);
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            Entry entry = entries.get(cell);
+            if (entry != null && now - entry.storedAt < ttlMillis) {
+                hits.incrementAndGet();
+                return entry.response;
+            }
+            if (entry != null) {
+                entries.remove(cell);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(double latitude, double longitude, WeatherResponse response) {
+        put(latitude, longitude, response, System.currentTimeMillis());
+    }
+
+    // storedAt lets callers seed the cache with an older row without extending its life
+    public void put(double latitude, double longitude, WeatherResponse response, long storedAt) {
+        if (response == null) return;
+
+        long cell = GeoCell.of(latitude, longitude);
+        synchronized (this) {
+            entries.put(cell, new Entry(response, storedAt));
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    @Override
+    public String toString() {
+        return "WeatherMemoryCache{" +
+                "size=" + size() +
+                ", hits=" + hits.get() +
+                ", misses=" + misses.get() +
+                ", evictions=" + evictions.get() +
+                ", ttlMillis=" + ttlMillis +
+                ", maxEntries=" + maxEntries +
+                '}';
+    }
+
+    private static final class Entry {
+        final WeatherResponse response;
+        final long storedAt;
+
+        Entry(WeatherResponse response, long storedAt) {
+            this.response = response;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -1,140 +1,613 @@
 package com.example.myapplication.data.repository;
 
 import static com.example.myapplication.common.Constants.API_KEY;
+import static com.example.myapplication.common.Constants.CACHE_FRESHNESS_WINDOW_MS;
+import static com.example.myapplication.common.Constants.COMPACTION_MIN_INTERVAL_MS;
+import static com.example.myapplication.common.Constants.DB_STREAM_DEBOUNCE_MS;
+import static com.example.myapplication.common.Constants.FORECAST_REFRESH_INTERVAL_MS;
+import static com.example.myapplication.common.Constants.OPENWEATHER_GROUP_MAX_IDS;
+import static com.example.myapplication.common.Constants.SYNC_FETCH_TIMEOUT_MS;
 import static com.example.myapplication.common.Constants.UNITS_METRIC;
 
+import android.os.Handler;
+import android.os.Looper;
+
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 
+import com.example.myapplication.common.FetchPolicy;
 import com.example.myapplication.common.Resource;
+import com.example.myapplication.common.utils.GeoCell;
+import com.example.myapplication.data.local.ForecastDao;
+import com.example.myapplication.data.local.ForecastEntity;
+import com.example.myapplication.data.local.SavedLocationEntity;
+import com.example.myapplication.data.local.SyncStateDao;
+import com.example.myapplication.data.local.SyncStateEntity;
+import com.example.myapplication.data.local.TableObservingLiveData;
+import com.example.myapplication.data.local.WeatherCompactor;
 import com.example.myapplication.data.local.WeatherDao;
+import com.example.myapplication.data.local.WeatherDatabase;
 import com.example.myapplication.data.local.WeatherEntity;
+import com.example.myapplication.data.local.WeatherWithConditions;
+import com.example.myapplication.data.local.WeatherWriteBuffer;
+import com.example.myapplication.data.model.GroupWeatherResponse;
 import com.example.myapplication.data.model.WeatherResponse;
 import com.example.myapplication.data.network.ApiService;
+import com.example.myapplication.data.network.CallCoalescer;
+import com.example.myapplication.data.network.CallRegistry;
+import com.example.myapplication.data.network.ForecastParser;
+import com.example.myapplication.data.network.HttpErrors;
+import com.example.myapplication.di.ExecutorModule.DatabaseExecutor;
+import com.example.myapplication.di.ExecutorModule.NetworkExecutor;
 import com.example.myapplication.domain.repository.WeatherRepository;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 
+import okhttp3.CacheControl;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
+import retrofit2.HttpException;
 import retrofit2.Response;
 
+// Singleton so the direct injections and the RepositoryModule binding share one
+// instance, with one set of streams and in-flight calls
+@Singleton
 public class WeatherRepositoryImpl implements WeatherRepository {
+    // Sync and refresh results are stored with cachedAt = now, so they must not come
+    // from a fresh HTTP cache entry that may be up to HTTP_CACHE_MAX_AGE_SECONDS old
+    private static final String FORCE_NETWORK = CacheControl.FORCE_NETWORK.toString();
+
     private final ApiService apiService;
+    private final WeatherDatabase database;
     private final WeatherDao weatherDao;
-    private final Executor executor;
+    private final ForecastDao forecastDao;
+    private final SyncStateDao syncStateDao;
+    private final WeatherWriteBuffer writeBuffer;
+    private final WeatherCompactor compactor;
+    private final WeatherMemoryCache memoryCache;
+    private final CallCoalescer<Long, WeatherResponse> callCoalescer;
+    private final CallRegistry callRegistry;
+    private final Executor dbExecutor;
+    private final Executor networkExecutor;
+    private final Handler mainHandler;
 
-    private final MutableLiveData<Resource<WeatherResponse>> weatherLiveData;
-    private final List<Call<WeatherResponse>> activeCalls;
+    private final ResultStreamRegistry<Resource<WeatherResponse>> weatherStreams;
+    // For callers that do not pass their own scope
+    private final CallRegistry.Scope defaultScope;
 
     @Inject
-    public WeatherRepositoryImpl(ApiService apiService, WeatherDao weatherDao) {
+    public WeatherRepositoryImpl(ApiService apiService,
+                                 WeatherDatabase database,
+                                 WeatherDao weatherDao,
+                                 ForecastDao forecastDao,
+                                 SyncStateDao syncStateDao,
+                                 WeatherWriteBuffer writeBuffer,
+                                 WeatherCompactor compactor,
+                                 WeatherMemoryCache memoryCache,
+                                 CallCoalescer<Long, WeatherResponse> callCoalescer,
+                                 CallRegistry callRegistry,
+                                 @DatabaseExecutor Executor dbExecutor,
+                                 @NetworkExecutor Executor networkExecutor) {
         this.apiService = apiService;
+        this.database = database;
         this.weatherDao = weatherDao;
-        this.executor = Executors.newFixedThreadPool(2);
-        this.weatherLiveData = new MutableLiveData<>();
-        this.activeCalls = new ArrayList<>();
+        this.forecastDao = forecastDao;
+        this.syncStateDao = syncStateDao;
+        this.writeBuffer = writeBuffer;
+        this.compactor = compactor;
+        this.memoryCache = memoryCache;
+        this.callCoalescer = callCoalescer;
+        this.callRegistry = callRegistry;
+        this.dbExecutor = dbExecutor;
+        this.networkExecutor = networkExecutor;
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.weatherStreams = new ResultStreamRegistry<>();
+        this.defaultScope = callRegistry.openScope("WeatherRepository");
     }
 
     @Override
     public LiveData<Resource<WeatherResponse>> getCurrentWeatherByCoordinates(double latitude, double longitude) {
+        return getCurrentWeatherByCoordinates(latitude, longitude, FetchPolicy.CACHE_THEN_NETWORK);
+    }
+
+    @Override
+    public LiveData<Resource<WeatherResponse>> getCurrentWeatherByCoordinates(double latitude, double longitude,
+                                                                              FetchPolicy fetchPolicy) {
+        return getCurrentWeatherByCoordinates(latitude, longitude, fetchPolicy, defaultScope);
+    }
+
+    @Override
+    public CallRegistry.Scope openCallScope(String name) {
+        return callRegistry.openScope(name);
+    }
+
+    @Override
+    public LiveData<Resource<WeatherResponse>> getCurrentWeatherByCoordinates(double latitude, double longitude,
+                                                                              FetchPolicy fetchPolicy,
+                                                                              CallRegistry.Scope scope) {
         if (!isValidCoordinate(latitude, longitude)) {
-            weatherLiveData.setValue(Resource.error("Invalid Coordinates", null));
-            return weatherLiveData;
+            MutableLiveData<Resource<WeatherResponse>> invalid = new MutableLiveData<>();
+            invalid.setValue(Resource.error("Invalid Coordinates", null));
+            return invalid;
         }
 
-        weatherLiveData.setValue(Resource.loading());
-        Call<WeatherResponse> call = apiService.getCurrentWeather(latitude, longitude, API_KEY, UNITS_METRIC);
+        // Each location gets its own stream, so concurrent requests for different
+        // places (e.g. several cities at once) never overwrite each other's results
+        MutableLiveData<Resource<WeatherResponse>> stream = weatherStreams.obtain(GeoCell.of(latitude, longitude));
+
+        if (fetchPolicy == FetchPolicy.NETWORK_ONLY) {
+            stream.setValue(Resource.loading());
+            // A refresh must reach the server, an HTTP cache hit would be stored as newly synced
+            fetchFromNetwork(latitude, longitude, stream, null, scope, FORCE_NETWORK);
+            return stream;
+        }
+
+        WeatherResponse cached = memoryCache.get(latitude, longitude);
+        if (cached != null) {
+            stream.setValue(Resource.success(cached));
+            return stream;
+        }
 
-        activeCalls.add(call);
-        call.enqueue(new Callback<WeatherResponse>() {
+        stream.setValue(Resource.loading());
+        try {
+            dbExecutor.execute(() -> loadFromDatabaseThenNetwork(latitude, longitude, stream, scope));
+        } catch (RejectedExecutionException e) {
+            // Database tier saturated, go to the network rather than wait for the cached row
+            fetchFromNetwork(latitude, longitude, stream, null, scope, null);
+        }
+        return stream;
+    }
+
+    // Runs on the database executor. Emits the cached row straight away so first paint does not
+    // wait on the API, then revalidates only if the row is outside the freshness window
+    private void loadFromDatabaseThenNetwork(double latitude, double longitude,
+                                             MutableLiveData<Resource<WeatherResponse>> stream,
+                                             CallRegistry.Scope scope) {
+        WeatherWithConditions record = null;
+        try {
+            record = weatherDao.getCachedWeatherByLocation(latitude, longitude);
+        } catch (Exception e) {
+            android.util.Log.e("WeatherRepo", "Error reading cached weather", e);
+        }
+
+        if (record == null) {
+            mainHandler.post(() -> fetchFromNetwork(latitude, longitude, stream, null, scope, null));
+            return;
+        }
+
+        WeatherResponse cachedResponse = record.toWeatherResponse();
+        long age = record.entity.getCacheAge();
+
+        if (age < CACHE_FRESHNESS_WINDOW_MS) {
+            memoryCache.put(latitude, longitude, cachedResponse, record.entity.cachedAt);
+            stream.postValue(Resource.success(cachedResponse));
+            return;
+        }
+
+        stream.postValue(Resource.stale(cachedResponse, age));
+        mainHandler.post(() -> fetchFromNetwork(latitude, longitude, stream, cachedResponse, scope, null));
+    }
+
+    // staleData is kept on errors so the UI can keep showing the last known weather
+    // Overlapping requests for the same cell share one upstream call through the coalescer,
+    // cancelling the scope detaches this request and leaves the call to any other waiter
+    private void fetchFromNetwork(double latitude, double longitude,
+                                  MutableLiveData<Resource<WeatherResponse>> stream,
+                                  WeatherResponse staleData,
+                                  CallRegistry.Scope scope,
+                                  String cacheControl) {
+        long cell = GeoCell.of(latitude, longitude);
+        CallRegistry.Request request = scope.start();
+        Callback<WeatherResponse> callback = new Callback<WeatherResponse>() {
             @Override
             public void onResponse(Call<WeatherResponse> call, Response<WeatherResponse> response) {
-                activeCalls.remove(call);
+                if (!request.finish()) return;
                 if (response.isSuccessful() && response.body() != null) {
-                    WeatherResponse weatherResponse = response.body();
-
-                     executor.execute(() -> {
-                        try {
-                            WeatherEntity entity = new WeatherEntity(weatherResponse);
-                            weatherDao.insertWeatherData(entity);
-                        } catch (Exception e) {
-                            android.util.Log.e("WeatherRepo", "Error saving weather data", e);
-                        }
-                    });
-
-                    weatherLiveData.setValue(Resource.success(weatherResponse));
+                    // Already cached and queued for writing by persistResponse
+                    stream.setValue(Resource.success(response.body()));
                 } else {
                     String errorMessage = getErrorMessage(response.code());
-                    weatherLiveData.setValue(Resource.error(errorMessage, null));
+                    stream.setValue(Resource.error(errorMessage, staleData));
                 }
             }
 
             @Override
             public void onFailure(Call<WeatherResponse> call, Throwable t) {
-                activeCalls.remove(call);
+                if (!request.finish()) return;
                 if (!call.isCanceled()) {
                     String errorMessage = getNetworkErrorMessage(t);
-                    weatherLiveData.setValue(Resource.error(errorMessage, null));
+                    stream.setValue(Resource.error(errorMessage, staleData));
                 }
             }
+        };
+
+        if (request.isCancelled()) return;
+        request.onCancel(() -> callCoalescer.detach(cell, callback));
+        callCoalescer.enqueue(cell,
+                () -> apiService.getCurrentWeather(latitude, longitude, API_KEY, UNITS_METRIC, cacheControl),
+                persistResponse(latitude, longitude),
+                callback);
+    }
+
+    // Runs once per upstream response for the cell, not per waiter, so the row is written
+    // even when the caller that started the shared call has since detached. Batched with
+    // other results arriving in the same window, the memory cache serves the location
+    // until the row is written
+    private Consumer<Response<WeatherResponse>> persistResponse(double latitude, double longitude) {
+        return response -> {
+            if (!response.isSuccessful() || response.body() == null) return;
+            memoryCache.put(latitude, longitude, response.body());
+            writeBuffer.enqueue(toEntity(response.body(), response, latitude, longitude));
+        };
+    }
+
+    @Override
+    public LiveData<List<WeatherResponse>> getLast7DaysWeather(double latitude, double longitude) {
+        // Re-queried when a write lands in either table (sync runs, write buffer
+        // flushes, compaction), and only emitted when the per-day rows changed
+        LiveData<List<WeatherWithConditions>> records = new TableObservingLiveData<>(
+                database,
+                dbExecutor,
+                DB_STREAM_DEBOUNCE_MS,
+                new String[]{"weather_cache", "daily_weather"},
+                () -> weatherDao.getLast7DaysLatestWeatherPerDay(latitude, longitude,
+                        System.currentTimeMillis() - (7 * 24 * 60 * 60 * 1000L)),
+                WeatherRepositoryImpl::sameRows);
+
+        return Transformations.map(records, list -> {
+            List<WeatherResponse> weatherList = new ArrayList<>(list.size());
+            for (WeatherWithConditions record : list) {
+                weatherList.add(record.toWeatherResponse());
+            }
+            return weatherList;
         });
-        return weatherLiveData;
+    }
+
+    // Rows are immutable once written, the same ids and timestamps mean the same content
+    private static boolean sameRows(List<WeatherWithConditions> previous, List<WeatherWithConditions> current) {
+        if (previous.size() != current.size()) return false;
+        for (int i = 0; i < previous.size(); i++) {
+            WeatherEntity a = previous.get(i).entity;
+            WeatherEntity b = current.get(i).entity;
+            if (a.dbId != b.dbId || a.cachedAt != b.cachedAt) return false;
+        }
+        return true;
     }
 
     @Override
-    public LiveData<List<WeatherResponse>> getLast7DaysWeather() {
-        MutableLiveData<List<WeatherResponse>> result = new MutableLiveData<>();
+    public LiveData<SyncStateEntity> observeSyncState(double latitude, double longitude) {
+        return syncStateDao.observeSyncState(GeoCell.of(latitude, longitude));
+    }
 
-        executor.execute(() -> {
-            try {
-                 long sevenDaysAgo = System.currentTimeMillis() - (7 * 24 * 60 * 60 * 1000L);
+    // Keyed by the coordinates that were asked for rather than the city coordinates the API
+    // reports, so the row and its sync_state land in the cell callers look up. Carries the
+    // response's ETag into sync_state with the row when it belongs to this location alone
+    private static WeatherEntity toEntity(WeatherResponse weather, Response<?> response,
+                                          double latitude, double longitude) {
+        WeatherEntity entity = new WeatherEntity(weather);
+        entity.latitude = latitude;
+        entity.longitude = longitude;
+        entity.cell = GeoCell.of(latitude, longitude);
+        entity.etag = response != null ? response.headers().get("ETag") : null;
+        return entity;
+    }
 
-                 List<WeatherEntity> entities = weatherDao.getLast7DaysLatestWeatherPerDay(sevenDaysAgo);
+    @Override
+    public LiveData<List<ForecastEntity>> getForecast(double latitude, double longitude) {
+        long cell = GeoCell.of(latitude, longitude);
+        try {
+            networkExecutor.execute(() -> refreshForecastIfStale(latitude, longitude, cell));
+        } catch (RejectedExecutionException e) {
+            // The stored run is still shown, the next getForecast call retries the refresh
+            android.util.Log.w("WeatherRepo", "Forecast refresh skipped, network tier saturated");
+        }
 
-                 List<WeatherResponse> weatherList = new ArrayList<>();
-                for (WeatherEntity entity : entities) {
-                    weatherList.add(entity.toWeatherResponse());
-                }
+        // Keep the step in progress visible, it started up to 3h ago
+        long fromTime = System.currentTimeMillis() / 1000 - 3 * 60 * 60;
+        return forecastDao.observeForecast(cell, fromTime);
+    }
 
-                 result.postValue(weatherList);
+    // Runs on the network executor. The body is parsed while it streams in and written as
+    // one replaceForecast transaction, the LiveData above picks the new run up
+    private void refreshForecastIfStale(double latitude, double longitude, long cell) {
+        try {
+            Long fetchedAt = forecastDao.getForecastFetchedAt(cell);
+            if (fetchedAt != null && System.currentTimeMillis() - fetchedAt < FORECAST_REFRESH_INTERVAL_MS) {
+                return;
+            }
 
-            } catch (Exception e) {
-                 result.postValue(new ArrayList<>());
+            Response<ResponseBody> response = apiService.getForecast(latitude, longitude, API_KEY, UNITS_METRIC).execute();
+            if (!response.isSuccessful() || response.body() == null) {
+                android.util.Log.w("WeatherRepo", "Forecast request failed: " + getErrorMessage(response.code()));
+                return;
             }
-        });
 
-        return result;
+            List<ForecastEntity> entries;
+            try (ResponseBody body = response.body()) {
+                entries = ForecastParser.parse(body.charStream(), cell, latitude, longitude, System.currentTimeMillis());
+            }
+            if (!entries.isEmpty()) {
+                forecastDao.replaceForecast(cell, entries);
+            }
+        } catch (Exception e) {
+            android.util.Log.e("WeatherRepo", "Error refreshing forecast", e);
+        }
     }
 
+    // Same cache policy as getCurrentWeatherByCoordinates: memory cache, then a row
+    // inside the freshness window, then the network within whatever budget is left.
+    // A stale row is the fallback when the network fails or the deadline passes, returned
+    // as STALE so a background sync does not mistake it for fresh data. Client errors are
+    // thrown even with a stale row, a retry would only get the same answer
     @Override
-    public WeatherResponse getCurrentWeatherSync(double latitude, double longitude) throws Exception {
-        return null;
+    public Resource<WeatherResponse> getCurrentWeatherSync(double latitude, double longitude, long deadlineMillis)
+            throws IOException, InterruptedException, TimeoutException {
+        if (!isValidCoordinate(latitude, longitude)) {
+            throw new IllegalArgumentException("Invalid Coordinates");
+        }
+
+        WeatherResponse cached = memoryCache.get(latitude, longitude);
+        if (cached != null) {
+            return Resource.success(cached);
+        }
+
+        WeatherResponse staleData = null;
+        long staleAge = 0;
+        WeatherWithConditions record = weatherDao.getCachedWeatherByLocation(latitude, longitude);
+        if (record != null) {
+            WeatherResponse cachedResponse = record.toWeatherResponse();
+            if (record.entity.getCacheAge() < CACHE_FRESHNESS_WINDOW_MS) {
+                memoryCache.put(latitude, longitude, cachedResponse, record.entity.cachedAt);
+                return Resource.success(cachedResponse);
+            }
+            staleData = cachedResponse;
+            staleAge = record.entity.getCacheAge();
+        }
+
+        long remaining = deadlineMillis - System.currentTimeMillis();
+        try {
+            if (remaining <= 0) {
+                throw new TimeoutException("Deadline passed before the network fetch");
+            }
+            return Resource.success(fetchBlocking(latitude, longitude, remaining));
+        } catch (IOException | TimeoutException e) {
+            if (staleData != null && HttpErrors.isRetryable(e)) {
+                android.util.Log.w("WeatherRepo", "Returning stale weather: " + e.getMessage());
+                return Resource.stale(staleData, staleAge);
+            }
+            throw e;
+        }
     }
 
-     public void cleanOldWeatherData() {
-        executor.execute(() -> {
-            try {
-                long thirtyDaysAgo = System.currentTimeMillis() - (30 * 24 * 60 * 60 * 1000L);
-                weatherDao.cleanOldWeatherData(thirtyDaysAgo);
-             } catch (Exception e) {
-                android.util.Log.e("WeatherRepo", "Error cleaning old data", e);
+    // Joins a fetch already in flight for the cell, e.g. from the UI, rather than
+    // starting a second one. Its own fetches skip the HTTP cache, like the batch below.
+    // fetchBlocking must not run on the main thread, Retrofit delivers its callbacks there
+    private WeatherResponse fetchBlocking(double latitude, double longitude, long timeoutMillis)
+            throws IOException, InterruptedException, TimeoutException {
+        long cell = GeoCell.of(latitude, longitude);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Response<WeatherResponse>> responseRef = new AtomicReference<>();
+        AtomicReference<Throwable> failureRef = new AtomicReference<>();
+        Callback<WeatherResponse> callback = new Callback<WeatherResponse>() {
+            @Override
+            public void onResponse(Call<WeatherResponse> call, Response<WeatherResponse> response) {
+                responseRef.set(response);
+                done.countDown();
             }
-        });
+
+            @Override
+            public void onFailure(Call<WeatherResponse> call, Throwable t) {
+                failureRef.set(t);
+                done.countDown();
+            }
+        };
+
+        callCoalescer.enqueue(cell,
+                () -> apiService.getCurrentWeather(latitude, longitude, API_KEY, UNITS_METRIC, FORCE_NETWORK),
+                persistResponse(latitude, longitude),
+                callback);
+        boolean completed;
+        try {
+            completed = done.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            callCoalescer.detach(cell, callback);
+            throw e;
+        }
+        if (!completed) {
+            callCoalescer.detach(cell, callback);
+            throw new TimeoutException("No response within " + timeoutMillis + " ms");
+        }
+
+        Throwable failure = failureRef.get();
+        if (failure != null) {
+            throw new IOException(getNetworkErrorMessage(failure), failure);
+        }
+        Response<WeatherResponse> response = responseRef.get();
+        if (!response.isSuccessful() || response.body() == null) {
+            throw new IOException(getErrorMessage(response.code()), new HttpException(response));
+        }
+
+        return response.body();
     }
 
-    public void cancelAllRequests() {
-        for (Call<WeatherResponse> call : activeCalls) {
-            if (!call.isCanceled()) {
-                call.cancel();
+    // Locations with a known city id are fetched OPENWEATHER_GROUP_MAX_IDS at a time
+    // through /group, the rest one by one. All requests are enqueued together and
+    // the dispatcher bounds how many run at once
+    @Override
+    public Map<Long, Resource<WeatherResponse>> getCurrentWeatherForLocations(Collection<SavedLocationEntity> locations)
+            throws InterruptedException {
+        Map<Long, List<SavedLocationEntity>> byCityId = new LinkedHashMap<>();
+        List<SavedLocationEntity> withoutCityId = new ArrayList<>();
+        for (SavedLocationEntity location : locations) {
+            if (location.cityId > 0) {
+                List<SavedLocationEntity> sameCity = byCityId.get(location.cityId);
+                if (sameCity == null) {
+                    sameCity = new ArrayList<>(1);
+                    byCityId.put(location.cityId, sameCity);
+                }
+                sameCity.add(location);
+            } else {
+                withoutCityId.add(location);
+            }
+        }
+
+        List<List<Long>> chunks = chunk(new ArrayList<>(byCityId.keySet()), OPENWEATHER_GROUP_MAX_IDS);
+        Map<Long, Resource<WeatherResponse>> results = new ConcurrentHashMap<>();
+        CallRegistry.Scope scope = callRegistry.openScope("locations");
+        CountDownLatch done = new CountDownLatch(chunks.size() + withoutCityId.size());
+
+        for (List<Long> cityIds : chunks) {
+            Call<GroupWeatherResponse> call = apiService.getCurrentWeatherForCities(
+                    joinIds(cityIds), API_KEY, UNITS_METRIC, FORCE_NETWORK);
+            CallRegistry.Request request = scope.start();
+            request.onCancel(call::cancel);
+            call.enqueue(new Callback<GroupWeatherResponse>() {
+                @Override
+                public void onResponse(Call<GroupWeatherResponse> call, Response<GroupWeatherResponse> response) {
+                    request.finish();
+                    if (response.isSuccessful() && response.body() != null && response.body().list != null) {
+                        for (WeatherResponse weather : response.body().list) {
+                            List<SavedLocationEntity> sameCity = byCityId.get(weather.id);
+                            if (sameCity == null) continue;
+                            for (SavedLocationEntity location : sameCity) {
+                                // One ETag covers the whole group, none is kept per city
+                                writeBuffer.enqueue(toEntity(weather, null, location.latitude, location.longitude));
+                                memoryCache.put(location.latitude, location.longitude, weather);
+                                results.put(location.cell, Resource.success(weather));
+                            }
+                        }
+                        // Ids the API left out of the list
+                        putErrorIfAbsent(results, byCityId, cityIds, getErrorMessage(404), null);
+                    } else {
+                        putErrorIfAbsent(results, byCityId, cityIds, getErrorMessage(response.code()),
+                                new HttpException(response));
+                    }
+                    done.countDown();
+                }
+
+                @Override
+                public void onFailure(Call<GroupWeatherResponse> call, Throwable t) {
+                    request.finish();
+                    putErrorIfAbsent(results, byCityId, cityIds, getNetworkErrorMessage(t), t);
+                    done.countDown();
+                }
+            });
+        }
+
+        for (SavedLocationEntity location : withoutCityId) {
+            Call<WeatherResponse> call = apiService.getCurrentWeather(
+                    location.latitude, location.longitude, API_KEY, UNITS_METRIC, FORCE_NETWORK);
+            CallRegistry.Request request = scope.start();
+            request.onCancel(call::cancel);
+            call.enqueue(new Callback<WeatherResponse>() {
+                @Override
+                public void onResponse(Call<WeatherResponse> call, Response<WeatherResponse> response) {
+                    request.finish();
+                    if (response.isSuccessful() && response.body() != null) {
+                        memoryCache.put(location.latitude, location.longitude, response.body());
+                        writeBuffer.enqueue(toEntity(response.body(), response,
+                                location.latitude, location.longitude));
+                        results.put(location.cell, Resource.success(response.body()));
+                    } else {
+                        results.put(location.cell, Resource.error(getErrorMessage(response.code()), null,
+                                new HttpException(response)));
+                    }
+                    done.countDown();
+                }
+
+                @Override
+                public void onFailure(Call<WeatherResponse> call, Throwable t) {
+                    request.finish();
+                    results.put(location.cell, Resource.error(getNetworkErrorMessage(t), null, t));
+                    done.countDown();
+                }
+            });
+        }
+
+        try {
+            done.await(SYNC_FETCH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } finally {
+            // Cancels whatever is still running after the timeout or an interrupt
+            scope.close();
+        }
+
+        // Snapshot so late callbacks cannot change the map after it is returned
+        Map<Long, Resource<WeatherResponse>> snapshot = new HashMap<>(results);
+        for (SavedLocationEntity location : locations) {
+            if (!snapshot.containsKey(location.cell)) {
+                snapshot.put(location.cell, Resource.error("Connection timed out. Please try again", null));
             }
         }
-        activeCalls.clear();
+        return snapshot;
+    }
+
+    private static void putErrorIfAbsent(Map<Long, Resource<WeatherResponse>> results,
+                                         Map<Long, List<SavedLocationEntity>> byCityId,
+                                         List<Long> cityIds, String message, Throwable error) {
+        for (Long cityId : cityIds) {
+            for (SavedLocationEntity location : byCityId.get(cityId)) {
+                results.putIfAbsent(location.cell, Resource.error(message, null, error));
+            }
+        }
+    }
+
+    private static <T> List<List<T>> chunk(List<T> items, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += size) {
+            chunks.add(items.subList(i, Math.min(i + size, items.size())));
+        }
+        return chunks;
+    }
+
+    private static String joinIds(List<Long> ids) {
+        StringBuilder joined = new StringBuilder();
+        for (Long id : ids) {
+            if (joined.length() > 0) joined.append(',');
+            joined.append(id);
+        }
+        return joined.toString();
+    }
+
+    // Old rows are downsampled into hourly / daily aggregates rather than deleted. Skipped
+    // when a compaction completed within COMPACTION_MIN_INTERVAL_MS
+    public void compactOldWeatherData() {
+        try {
+            dbExecutor.execute(() -> compactor.compactIfDue(System.currentTimeMillis(), COMPACTION_MIN_INTERVAL_MS));
+        } catch (RejectedExecutionException e) {
+            android.util.Log.w("WeatherRepo", "Compaction skipped, database tier saturated");
+        }
+    }
+
+    public WeatherMemoryCache getMemoryCache() {
+        return memoryCache;
+    }
+
+    public void flushPendingWrites() {
+        writeBuffer.flushAsync();
+    }
+
+    // App-wide, cancels every scope. Screens close their own scope instead
+    public void cancelAllRequests() {
+        callRegistry.cancelAll();
     }
 
     private boolean isValidCoordinate(double latitude, double longitude) {
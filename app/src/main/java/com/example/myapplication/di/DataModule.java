@@ -2,8 +2,19 @@ package com.example.myapplication.di;
 
 import android.content.Context;
 
+import com.example.myapplication.common.Constants;
+import com.example.myapplication.data.local.ForecastDao;
+import com.example.myapplication.data.local.SavedLocationDao;
+import com.example.myapplication.data.local.SyncStateDao;
+import com.example.myapplication.data.local.WeatherCompactor;
 import com.example.myapplication.data.local.WeatherDao;
 import com.example.myapplication.data.local.WeatherDatabase;
+import com.example.myapplication.data.local.WeatherWriteBuffer;
+import com.example.myapplication.di.ExecutorModule.DatabaseExecutor;
+import com.example.myapplication.di.ExecutorModule.TimerExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 
 import javax.inject.Singleton;
 
@@ -29,4 +40,49 @@ public abstract class DataModule {
         return database.weatherDao();
     }
 
+    @Provides
+    @Singleton
+    public static SavedLocationDao providesSavedLocationDao(WeatherDatabase database){
+        return database.savedLocationDao();
+    }
+
+    @Provides
+    @Singleton
+    public static ForecastDao providesForecastDao(WeatherDatabase database){
+        return database.forecastDao();
+    }
+
+    @Provides
+    @Singleton
+    public static SyncStateDao providesSyncStateDao(WeatherDatabase database){
+        return database.syncStateDao();
+    }
+
+    @Provides
+    @Singleton
+    public static WeatherCompactor providesWeatherCompactor(@ApplicationContext Context context,
+                                                            WeatherDatabase database){
+        return new WeatherCompactor(
+                database,
+                context.getSharedPreferences(Constants.COMPACTION_PREFS_NAME, Context.MODE_PRIVATE),
+                Constants.RAW_HISTORY_RETENTION_DAYS,
+                Constants.HOURLY_HISTORY_RETENTION_DAYS,
+                Constants.COMPACTION_BATCH_SIZE
+        );
+    }
+
+    @Provides
+    @Singleton
+    public static WeatherWriteBuffer providesWeatherWriteBuffer(WeatherDao weatherDao,
+                                                                @DatabaseExecutor Executor dbExecutor,
+                                                                @TimerExecutor ScheduledExecutorService timer){
+        return new WeatherWriteBuffer(
+                weatherDao,
+                dbExecutor,
+                timer,
+                Constants.WEATHER_WRITE_BUFFER_WINDOW_MS,
+                Constants.WEATHER_WRITE_BUFFER_MAX_BATCH
+        );
+    }
+
 }
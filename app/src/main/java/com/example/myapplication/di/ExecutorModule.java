@@ -0,0 +1,83 @@
+package com.example.myapplication.di;
+
+import com.example.myapplication.common.Constants;
+import com.example.myapplication.common.executor.AppExecutors;
+import com.example.myapplication.common.executor.InstrumentedExecutor;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import javax.inject.Qualifier;
+import javax.inject.Singleton;
+
+import dagger.Module;
+import dagger.Provides;
+import dagger.hilt.InstallIn;
+import dagger.hilt.components.SingletonComponent;
+
+@InstallIn(SingletonComponent.class)
+@Module
+public abstract class ExecutorModule {
+
+    @Qualifier
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface DatabaseExecutor {}
+
+    @Qualifier
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface NetworkExecutor {}
+
+    @Qualifier
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface TimerExecutor {}
+
+    @Provides
+    @Singleton
+    public static AppExecutors providesAppExecutors(){
+        // Database tasks back LiveData the UI waits on and network tasks refresh what it shows,
+        // neither may be dropped. Both are submitted from the main thread, where Room and
+        // OkHttp refuse to run, so overflow goes to a bounded overflow thread rather than the
+        // caller, see InstrumentedExecutor
+        InstrumentedExecutor database = new InstrumentedExecutor(
+                "weather-db",
+                Constants.DB_EXECUTOR_THREADS,
+                Constants.DB_EXECUTOR_QUEUE_CAPACITY,
+                Constants.EXECUTOR_SLOW_TASK_MS
+        );
+        InstrumentedExecutor network = new InstrumentedExecutor(
+                "weather-net",
+                Constants.NETWORK_EXECUTOR_THREADS,
+                Constants.NETWORK_EXECUTOR_QUEUE_CAPACITY,
+                Constants.EXECUTOR_SLOW_TASK_MS
+        );
+        // Only fires delayed hand-offs to the tiers above, one thread is plenty
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "weather-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return new AppExecutors(database, network, timer);
+    }
+
+    @Provides
+    @DatabaseExecutor
+    public static Executor providesDatabaseExecutor(AppExecutors executors){
+        return executors.database();
+    }
+
+    @Provides
+    @NetworkExecutor
+    public static Executor providesNetworkExecutor(AppExecutors executors){
+        return executors.network();
+    }
+
+    @Provides
+    @TimerExecutor
+    public static ScheduledExecutorService providesTimerExecutor(AppExecutors executors){
+        return executors.timer();
+    }
+}
@@ -2,9 +2,21 @@ package com.example.myapplication.di;
 
 import static com.example.myapplication.common.Constants.BASE_URL;
 
+import android.content.Context;
+
+import com.example.myapplication.BuildConfig;
 import com.example.myapplication.common.Constants;
+import com.example.myapplication.data.model.adapter.WeatherTypeAdapters;
 import com.example.myapplication.data.network.ApiService;
+import com.example.myapplication.data.network.CachePolicyInterceptor;
+import com.example.myapplication.data.network.HttpCacheMetrics;
+import com.example.myapplication.data.network.NetworkMetrics;
+import com.example.myapplication.data.network.NetworkMetricsEventListener;
+import com.example.myapplication.data.network.NetworkMetricsInterceptor;
+import com.example.myapplication.data.network.SampledLoggingInterceptor;
+import com.google.gson.Gson;
 
+import java.io.File;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Singleton;
@@ -12,9 +24,11 @@ import javax.inject.Singleton;
 import dagger.Module;
 import dagger.Provides;
 import dagger.hilt.InstallIn;
+import dagger.hilt.android.qualifiers.ApplicationContext;
 import dagger.hilt.components.SingletonComponent;
+import okhttp3.Cache;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
@@ -24,22 +38,58 @@ import retrofit2.converter.gson.GsonConverterFactory;
 public abstract class NetworkModule {
     @Provides
     @Singleton
-    public static Retrofit provideRetrofit(OkHttpClient okHttpClient) {
+    public static Retrofit provideRetrofit(OkHttpClient okHttpClient, Gson gson) {
         return new Retrofit.Builder()
                 .baseUrl(Constants.BASE_URL)
                 .client(okHttpClient)
-                .addConverterFactory(GsonConverterFactory.create())
+                .addConverterFactory(GsonConverterFactory.create(gson))
                 .build();
     }
 
     @Provides
     @Singleton
-    public static OkHttpClient provideOkHttpClient() {
-        HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+    public static Gson provideGson() {
+        return WeatherTypeAdapters.gson();
+    }
+
+    @Provides
+    @Singleton
+    public static HttpCacheMetrics provideHttpCacheMetrics() {
+        return new HttpCacheMetrics();
+    }
+
+    @Provides
+    @Singleton
+    public static NetworkMetrics provideNetworkMetrics() {
+        return new NetworkMetrics();
+    }
+
+    @Provides
+    @Singleton
+    public static OkHttpClient provideOkHttpClient(@ApplicationContext Context context,
+                                                   HttpCacheMetrics cacheMetrics,
+                                                   NetworkMetrics networkMetrics) {
+        Cache cache = new Cache(
+                new File(context.getCacheDir(), Constants.HTTP_CACHE_DIRECTORY),
+                Constants.HTTP_CACHE_SIZE_BYTES
+        );
+
+        // Every call goes to the same host, so this is the effective parallelism
+        // limit for enqueued calls, including the multi-location sync
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(Constants.HTTP_MAX_REQUESTS_PER_HOST);
 
         return new OkHttpClient.Builder()
-                .addInterceptor(loggingInterceptor)
+                .cache(cache)
+                .dispatcher(dispatcher)
+                .eventListenerFactory(new NetworkMetricsEventListener.Factory(networkMetrics))
+                .addInterceptor(new NetworkMetricsInterceptor(networkMetrics))
+                .addInterceptor(cacheMetrics)
+                .addInterceptor(new SampledLoggingInterceptor(
+                        BuildConfig.HTTP_BODY_LOGGING,
+                        Constants.HTTP_BODY_LOG_SAMPLE_RATE
+                ))
+                .addNetworkInterceptor(new CachePolicyInterceptor(Constants.HTTP_CACHE_MAX_AGE_SECONDS))
                 .connectTimeout(30, TimeUnit.SECONDS)
                 .readTimeout(30, TimeUnit.SECONDS)
                 .writeTimeout(30, TimeUnit.SECONDS)
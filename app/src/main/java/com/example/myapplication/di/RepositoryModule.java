@@ -1,5 +1,10 @@
 package com.example.myapplication.di;
 
+import com.example.myapplication.common.Constants;
+import com.example.myapplication.data.model.WeatherResponse;
+import com.example.myapplication.data.network.CallCoalescer;
+import com.example.myapplication.data.network.CallRegistry;
+import com.example.myapplication.data.repository.WeatherMemoryCache;
 import com.example.myapplication.data.repository.WeatherRepositoryImpl;
 import com.example.myapplication.domain.repository.WeatherRepository;
 
@@ -18,4 +23,25 @@ public abstract class RepositoryModule {
     public static WeatherRepository providesWeatherRepository(WeatherRepositoryImpl impl){
         return impl;
     }
+
+    @Provides
+    @Singleton
+    public static WeatherMemoryCache providesWeatherMemoryCache(){
+        return new WeatherMemoryCache(
+                Constants.WEATHER_MEMORY_CACHE_TTL_MS,
+                Constants.WEATHER_MEMORY_CACHE_MAX_ENTRIES
+        );
+    }
+
+    @Provides
+    @Singleton
+    public static CallCoalescer<Long, WeatherResponse> providesWeatherCallCoalescer(){
+        return new CallCoalescer<>();
+    }
+
+    @Provides
+    @Singleton
+    public static CallRegistry providesCallRegistry(){
+        return new CallRegistry();
+    }
 }
@@ -3,16 +3,54 @@ package com.example.myapplication.domain.repository;
 
 import androidx.lifecycle.LiveData;
 
+import com.example.myapplication.common.FetchPolicy;
 import com.example.myapplication.common.Resource;
+import com.example.myapplication.data.local.ForecastEntity;
+import com.example.myapplication.data.local.SavedLocationEntity;
+import com.example.myapplication.data.local.SyncStateEntity;
 import com.example.myapplication.data.model.WeatherResponse;
+import com.example.myapplication.data.network.CallRegistry;
 
+import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 public interface WeatherRepository {
 
     LiveData<Resource<WeatherResponse>> getCurrentWeatherByCoordinates(double latitude, double longitude);
-    LiveData<List<WeatherResponse>> getLast7DaysWeather();
-    WeatherResponse getCurrentWeatherSync(double latitude, double longitude) throws Exception;
+    LiveData<Resource<WeatherResponse>> getCurrentWeatherByCoordinates(double latitude, double longitude, FetchPolicy fetchPolicy);
+
+    // Network calls are tracked in the caller's scope, closing it cancels only those
+    LiveData<Resource<WeatherResponse>> getCurrentWeatherByCoordinates(double latitude, double longitude,
+                                                                       FetchPolicy fetchPolicy, CallRegistry.Scope scope);
+
+    // One per ViewModel or other caller, close it when the caller goes away
+    CallRegistry.Scope openCallScope(String name);
+
+    // The location's latest weather per day, live, updates whenever new rows land in
+    // its history. Hold on to the returned stream
+    LiveData<List<WeatherResponse>> getLast7DaysWeather(double latitude, double longitude);
+
+    // Last successful sync for the location's cell, null until it has been synced once
+    LiveData<SyncStateEntity> observeSyncState(double latitude, double longitude);
+
+    // Reads the stored forecast, refreshing it in the background when the run is old
+    LiveData<List<ForecastEntity>> getForecast(double latitude, double longitude);
+
+    // Blocking, never on the main thread. Returns cached weather straight away when it is
+    // fresh, otherwise fetches within the time left until deadlineMillis (epoch millis).
+    // Success when the weather is fresh or was fetched. When the fetch fails the stale cached
+    // weather comes back as Resource.stale, so callers can tell it from a sync; throws only
+    // when there is none
+    Resource<WeatherResponse> getCurrentWeatherSync(double latitude, double longitude, long deadlineMillis)
+            throws IOException, InterruptedException, TimeoutException;
+
+    // Blocking, keyed by each location's GeoCell. Every location gets a success or error entry.
+    // Results are written through the same buffer as foreground fetches
+    Map<Long, Resource<WeatherResponse>> getCurrentWeatherForLocations(Collection<SavedLocationEntity> locations)
+            throws InterruptedException;
 
 
 
@@ -0,0 +1,65 @@
+package com.example.myapplication.presentation.mainActivity;
+
+import com.example.myapplication.data.model.Main;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Text formatting for the forecast rows. Kept free of Android types so the
+ * :benchmarks module can measure it on the JVM.
+ */
+public final class ForecastFormatter {
+
+    private ForecastFormatter() {}
+
+    public static String formatDate(long timestamp) {
+        SimpleDateFormat sdf = new SimpleDateFormat("dd MMM", Locale.getDefault());
+        return sdf.format(new Date(timestamp));
+    }
+
+    public static String formatTemperature(Main main) {
+        if (main.temp_min > 0 && main.temp_max > 0) {
+            return formatTemperaturePair(main.temp_min, main.temp_max);
+        }
+        return formatTemperaturePair(main.temp, main.feels_like);
+    }
+
+    public static String formatTemperaturePair(double first, double second) {
+        int firstTemp = (int) Math.round(first);
+        int secondTemp = (int) Math.round(second);
+        return firstTemp + "° " + secondTemp + "°";
+    }
+
+    public static String getDayLabel(int position) {
+
+        Calendar today = Calendar.getInstance();
+        Calendar itemDate = Calendar.getInstance();
+        itemDate.add(Calendar.DAY_OF_YEAR, -position);
+
+        long diffInMillis = today.getTimeInMillis() - itemDate.getTimeInMillis();
+        int daysDiff = (int) (diffInMillis / (24 * 60 * 60 * 1000));
+
+        switch (daysDiff) {
+            case 0:
+                return "Today";
+            case 1:
+                return "Yesterday";
+            case 2:
+                return "2 days ago";
+            case 3:
+                return "3 days ago";
+            case 4:
+                return "4 days ago";
+            case 5:
+                return "5 days ago";
+            case 6:
+                return "6 days ago";
+            default:
+                SimpleDateFormat sdf = new SimpleDateFormat("EEEE", Locale.getDefault());
+                return sdf.format(itemDate.getTime());
+        }
+    }
+}
@@ -21,6 +21,7 @@ import com.example.myapplication.common.Resource;
 import com.example.myapplication.common.utils.LocationHelper;
 import com.example.myapplication.common.utils.LocationPreferences;
 import com.example.myapplication.common.worker.WeatherWorkScheduler;
+import com.example.myapplication.data.local.SyncStateEntity;
 import com.example.myapplication.data.model.WeatherResponse;
 import com.example.myapplication.databinding.ActivityMainBinding;
 
@@ -37,6 +38,7 @@ public class MainActivity extends AppCompatActivity {
     private MainActivityViewmodel viewModel;
     private LocationHelper locationHelper;
     private WeatherForecastAdapter forecastAdapter;
+    private UpcomingForecastAdapter upcomingForecastAdapter;
 
     private final ActivityResultLauncher<String[]> locationPermissionLauncher =
             registerForActivityResult(new ActivityResultContracts.RequestMultiplePermissions(),
@@ -77,6 +79,7 @@ public class MainActivity extends AppCompatActivity {
         viewModel = new ViewModelProvider(this).get(MainActivityViewmodel.class);
         locationHelper = new LocationHelper(this);
         forecastAdapter = new WeatherForecastAdapter();
+        upcomingForecastAdapter = new UpcomingForecastAdapter();
     }
 
     private void setupUI() {
@@ -86,6 +89,9 @@ public class MainActivity extends AppCompatActivity {
          binding.rvForecast.setLayoutManager(new LinearLayoutManager(this));
         binding.rvForecast.setAdapter(forecastAdapter);
 
+         binding.rvUpcomingForecast.setLayoutManager(new LinearLayoutManager(this));
+        binding.rvUpcomingForecast.setAdapter(upcomingForecastAdapter);
+
          setupSwipeRefresh();
     }
 
@@ -117,12 +123,19 @@ public class MainActivity extends AppCompatActivity {
                         showLoading(true);
                         break;
                     case SUCCESS:
+                    case STALE:
+                        // Stale data is painted right away while the repository revalidates
                         showLoading(false);
                         updateWeatherUI(resource.getData());
                         break;
                     case ERROR:
                         showLoading(false);
-                        showError(resource.getMessage());
+                        if (resource.getData() != null) {
+                            updateWeatherUI(resource.getData());
+                            Toast.makeText(this, resource.getMessage(), Toast.LENGTH_SHORT).show();
+                        } else {
+                            showError(resource.getMessage());
+                        }
                         break;
                 }
             }
@@ -139,6 +152,20 @@ public class MainActivity extends AppCompatActivity {
             }
         });
 
+         // Read from the forecast table, the repository refreshes it in the background
+         viewModel.getUpcomingForecast().observe(this, forecastList -> {
+            if (forecastList != null && !forecastList.isEmpty()) {
+                upcomingForecastAdapter.updateForecastList(forecastList);
+                binding.rvUpcomingForecast.setVisibility(View.VISIBLE);
+                binding.emptyUpcomingForecastLayout.setVisibility(View.GONE);
+            } else {
+                binding.rvUpcomingForecast.setVisibility(View.GONE);
+                binding.emptyUpcomingForecastLayout.setVisibility(View.VISIBLE);
+            }
+        });
+
+         viewModel.getSyncState().observe(this, this::updateSyncBadge);
+
          viewModel.getLoadingState().observe(this, isLoading -> {
             showLoading(isLoading != null && isLoading);
         });
@@ -336,6 +363,32 @@ public class MainActivity extends AppCompatActivity {
         return directions[index];
     }
 
+    // Highlighted once the data is older than the freshness window
+    private void updateSyncBadge(SyncStateEntity state) {
+        if (state == null) {
+            binding.tvLastSynced.setVisibility(View.GONE);
+            return;
+        }
+
+        long age = Math.max(0, System.currentTimeMillis() - state.lastSyncedAt);
+        long minutes = age / (60 * 1000L);
+        String label;
+        if (minutes < 1) {
+            label = "Updated just now";
+        } else if (minutes < 60) {
+            label = "Updated " + minutes + " min ago";
+        } else if (minutes < 48 * 60) {
+            label = "Updated " + (minutes / 60) + " h ago";
+        } else {
+            label = "Updated " + (minutes / (24 * 60)) + " days ago";
+        }
+
+        binding.tvLastSynced.setText(label);
+        binding.tvLastSynced.setTextColor(ContextCompat.getColor(this,
+                age > Constants.CACHE_FRESHNESS_WINDOW_MS ? R.color.yellow : R.color.white));
+        binding.tvLastSynced.setVisibility(View.VISIBLE);
+    }
+
     private void showLoading(boolean show) {
         binding.progressBar.setVisibility(show ? View.VISIBLE : View.GONE);
         binding.swipeRefreshLayout.setRefreshing(show);
@@ -4,13 +4,21 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.example.myapplication.common.FetchPolicy;
 import com.example.myapplication.common.Resource;
+import com.example.myapplication.common.executor.AppExecutors;
+import com.example.myapplication.common.utils.GeoCell;
+import com.example.myapplication.data.local.ForecastEntity;
+import com.example.myapplication.data.local.SyncStateEntity;
 import com.example.myapplication.data.local.WeatherDao;
 import com.example.myapplication.data.model.WeatherResponse;
+import com.example.myapplication.data.network.CallRegistry;
 import com.example.myapplication.data.repository.WeatherRepositoryImpl;
 import com.example.myapplication.domain.repository.WeatherRepository;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.inject.Inject;
 
@@ -22,8 +30,18 @@ public class MainActivityViewmodel extends ViewModel {
     private final WeatherRepository weatherRepository;
     private final WeatherRepositoryImpl weatherRepositoryImpl; // For cleanup methods
     private final WeatherDao weatherDao;
+    private final AppExecutors executors;
+    private final CallRegistry.Scope callScope;
     private final MediatorLiveData<Resource<WeatherResponse>> currentWeatherData;
     private final MediatorLiveData<Boolean> isLoading;
+    private LiveData<Resource<WeatherResponse>> currentSource;
+    private final MediatorLiveData<List<ForecastEntity>> upcomingForecast;
+    private final MediatorLiveData<List<WeatherResponse>> last7DaysWeather;
+    private LiveData<List<WeatherResponse>> last7DaysSource;
+    private LiveData<List<ForecastEntity>> forecastSource;
+    private final MediatorLiveData<SyncStateEntity> syncState;
+    private LiveData<SyncStateEntity> syncStateSource;
+    private long forecastCell;
 
     private double currentLatitude = 0.0;
     private double currentLongitude = 0.0;
@@ -32,20 +50,30 @@ public class MainActivityViewmodel extends ViewModel {
     @Inject
     public MainActivityViewmodel(WeatherRepository weatherRepository,
                                  WeatherRepositoryImpl weatherRepositoryImpl,
-                                 WeatherDao weatherDao) {
+                                 WeatherDao weatherDao,
+                                 AppExecutors executors) {
         this.weatherRepository = weatherRepository;
         this.weatherRepositoryImpl = weatherRepositoryImpl;
         this.weatherDao = weatherDao;
+        this.executors = executors;
+        this.callScope = weatherRepository.openCallScope("MainActivityViewmodel");
 
         this.currentWeatherData = new MediatorLiveData<>();
         this.isLoading = new MediatorLiveData<>();
+        this.upcomingForecast = new MediatorLiveData<>();
+        this.syncState = new MediatorLiveData<>();
+        this.last7DaysWeather = new MediatorLiveData<>();
 
         isLoading.setValue(false);
 
-         cleanOldWeatherData();
+        compactOldWeatherData();
     }
 
     public void getCurrentWeatherByCoordinates(double latitude, double longitude) {
+        getCurrentWeatherByCoordinates(latitude, longitude, FetchPolicy.CACHE_THEN_NETWORK);
+    }
+
+    public void getCurrentWeatherByCoordinates(double latitude, double longitude, FetchPolicy fetchPolicy) {
         if (!isValidCoordinate(latitude, longitude)) {
             currentWeatherData.setValue(Resource.error("Invalid coordinates", null));
             return;
@@ -55,9 +83,14 @@ public class MainActivityViewmodel extends ViewModel {
         this.currentLongitude = longitude;
         this.hasValidLocation = true;
 
-         LiveData<Resource<WeatherResponse>> source = weatherRepository.getCurrentWeatherByCoordinates(latitude, longitude);
+         LiveData<Resource<WeatherResponse>> source = weatherRepository.getCurrentWeatherByCoordinates(latitude, longitude, fetchPolicy, callScope);
 
-        currentWeatherData.removeSource(source);
+        // Streams are per location, detach the previous one so an older
+        // location cannot push results after the user moved on
+        if (currentSource != null) {
+            currentWeatherData.removeSource(currentSource);
+        }
+        currentSource = source;
 
         currentWeatherData.addSource(source, resource -> {
             currentWeatherData.setValue(resource);
@@ -66,11 +99,65 @@ public class MainActivityViewmodel extends ViewModel {
                 isLoading.setValue(resource.getStatus() == Resource.Status.LOADING);
             }
         });
+
+        observeLocationData(latitude, longitude);
+    }
+
+    // Rebinds only when the location moves to another cell, the repository
+    // decides whether the stored forecast run needs refreshing. The history
+    // follows the same cell, it is kept per location
+    private void observeLocationData(double latitude, double longitude) {
+        long cell = GeoCell.of(latitude, longitude);
+        if (forecastSource != null && cell == forecastCell) {
+            return;
+        }
+        if (forecastSource != null) {
+            upcomingForecast.removeSource(forecastSource);
+            syncState.removeSource(syncStateSource);
+            last7DaysWeather.removeSource(last7DaysSource);
+        }
+
+        forecastCell = cell;
+        forecastSource = weatherRepository.getForecast(latitude, longitude);
+        upcomingForecast.addSource(forecastSource, entries -> upcomingForecast.setValue(middayPerDay(entries)));
+
+        syncStateSource = weatherRepository.observeSyncState(latitude, longitude);
+        syncState.addSource(syncStateSource, syncState::setValue);
+
+        last7DaysSource = weatherRepository.getLast7DaysWeather(latitude, longitude);
+        last7DaysWeather.addSource(last7DaysSource, last7DaysWeather::setValue);
+    }
+
+    // The forecast has eight 3-hour steps per day, keep the one closest to local noon
+    private static List<ForecastEntity> middayPerDay(List<ForecastEntity> entries) {
+        List<ForecastEntity> days = new ArrayList<>();
+        if (entries == null) return days;
+
+        long currentDay = Long.MIN_VALUE;
+        ForecastEntity best = null;
+        long bestDistance = 0;
+        for (ForecastEntity entry : entries) {
+            long localSeconds = entry.targetTime + entry.timezone;
+            long day = Math.floorDiv(localSeconds, 86400L);
+            long distance = Math.abs(Math.floorMod(localSeconds, 86400L) - 12 * 60 * 60);
+
+            if (day != currentDay) {
+                if (best != null) days.add(best);
+                currentDay = day;
+                best = entry;
+                bestDistance = distance;
+            } else if (distance < bestDistance) {
+                best = entry;
+                bestDistance = distance;
+            }
+        }
+        if (best != null) days.add(best);
+        return days;
     }
 
     public void refreshWeather() {
         if (hasValidLocation) {
-            getCurrentWeatherByCoordinates(currentLatitude, currentLongitude);
+            getCurrentWeatherByCoordinates(currentLatitude, currentLongitude, FetchPolicy.NETWORK_ONLY);
         } else {
             currentWeatherData.setValue(Resource.error("No location available", null));
         }
@@ -80,8 +167,19 @@ public class MainActivityViewmodel extends ViewModel {
         return currentWeatherData;
     }
 
+    // One stream for the ViewModel's lifetime, it follows the current location and
+    // pushes updates as its history is written
     public LiveData<List<WeatherResponse>> getLast7DaysWeather() {
-        return weatherRepository.getLast7DaysWeather();
+        return last7DaysWeather;
+    }
+
+    public LiveData<List<ForecastEntity>> getUpcomingForecast() {
+        return upcomingForecast;
+    }
+
+    // Drives the "updated ... ago" badge, one sync_state row for the current cell
+    public LiveData<SyncStateEntity> getSyncState() {
+        return syncState;
     }
 
     public LiveData<Boolean> getLoadingState() {
@@ -90,7 +188,7 @@ public class MainActivityViewmodel extends ViewModel {
 
     public boolean isCurrentWeatherAvailable() {
         Resource<WeatherResponse> data = currentWeatherData.getValue();
-        return data != null && data.isSuccess() && data.getData() != null;
+        return data != null && (data.isSuccess() || data.isStale()) && data.getData() != null;
     }
 
     public String getCurrentTemperature() {
@@ -135,22 +233,31 @@ public class MainActivityViewmodel extends ViewModel {
         return hasValidLocation;
     }
 
-     private void cleanOldWeatherData() {
+    private void compactOldWeatherData() {
         if (weatherRepositoryImpl != null) {
-            weatherRepositoryImpl.cleanOldWeatherData();
+            weatherRepositoryImpl.compactOldWeatherData();
         }
     }
 
+    // Logs the stored rows per day and the executor tiers' metrics
      public void debugDailyRecords() {
-         new Thread(() -> {
-            try {
-                long sevenDaysAgo = System.currentTimeMillis() - (7 * 24 * 60 * 60 * 1000L);
-                List<WeatherDao.DayCountResult> counts = weatherDao.getRecordsCountPerDay(sevenDaysAgo);
-
-            } catch (Exception e) {
-                android.util.Log.e("WeatherViewModel", "Error getting debug info", e);
-            }
-        }).start();
+        try {
+            executors.database().execute(() -> {
+                try {
+                    long sevenDaysAgo = System.currentTimeMillis() - (7 * 24 * 60 * 60 * 1000L);
+                    List<WeatherDao.DayCountResult> counts = weatherDao.getRecordsCountPerDay(sevenDaysAgo);
+                    for (WeatherDao.DayCountResult day : counts) {
+                        android.util.Log.d("WeatherViewModel", day.day + ": " + day.count + " records");
+                    }
+
+                    executors.logMetrics();
+                } catch (Exception e) {
+                    android.util.Log.e("WeatherViewModel", "Error getting debug info", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            executors.logMetrics();
+        }
     }
 
     private boolean isValidCoordinate(double latitude, double longitude) {
@@ -160,8 +267,10 @@ public class MainActivityViewmodel extends ViewModel {
     @Override
     protected void onCleared() {
         super.onCleared();
+        // Only this screen's calls, other screens keep theirs
+        callScope.close();
          if (weatherRepositoryImpl != null) {
-            weatherRepositoryImpl.cancelAllRequests();
+            weatherRepositoryImpl.flushPendingWrites();
         }
     }
 }
\ No newline at end of file
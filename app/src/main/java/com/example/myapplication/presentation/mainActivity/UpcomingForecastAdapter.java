@@ -0,0 +1,71 @@
+package com.example.myapplication.presentation.mainActivity;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.myapplication.R;
+import com.example.myapplication.data.local.ForecastEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Upcoming days from the stored forecast, one row per day. Uses the same row
+ * layout as the history list.
+ */
+public class UpcomingForecastAdapter extends RecyclerView.Adapter<UpcomingForecastAdapter.ViewHolder> {
+
+    private final List<ForecastEntity> forecastList = new ArrayList<>();
+
+    public void updateForecastList(List<ForecastEntity> newList) {
+        this.forecastList.clear();
+        if (newList != null) {
+            this.forecastList.addAll(newList);
+        }
+        notifyDataSetChanged();
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_forecast, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.bind(forecastList.get(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return forecastList.size();
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        TextView tvDate, tvDayLabel, tvTemperature;
+        ImageView ivWeatherIcon;
+
+        ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvDate = itemView.findViewById(R.id.tvDate);
+            tvDayLabel = itemView.findViewById(R.id.tvDayLabel);
+            tvTemperature = itemView.findViewById(R.id.tvTemperature);
+            ivWeatherIcon = itemView.findViewById(R.id.ivWeatherIcon);
+        }
+
+        void bind(ForecastEntity forecast) {
+            tvDate.setText(ForecastFormatter.formatDate(forecast.targetTime * 1000));
+            tvDayLabel.setText(forecast.description != null ? forecast.description : "");
+            tvTemperature.setText(ForecastFormatter.formatTemperaturePair(forecast.tempMin, forecast.tempMax));
+            ivWeatherIcon.setImageResource(WeatherForecastAdapter.iconFor(forecast.conditionMain));
+        }
+    }
+}
@@ -13,12 +13,8 @@ import com.example.myapplication.R;
 import com.example.myapplication.data.model.WeatherResponse;
 import com.example.myapplication.presentation.weatherDetailActivity.WeatherDetailActivity;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 public class WeatherForecastAdapter extends RecyclerView.Adapter<WeatherForecastAdapter.ViewHolder> {
 
@@ -75,24 +71,11 @@ public class WeatherForecastAdapter extends RecyclerView.Adapter<WeatherForecast
 
         public void bind(WeatherResponse weather, int position) {
 
-            String dateStr = formatDate(weather.dt * 1000);
-            tvDate.setText(dateStr);
-
-             String dayLabel = getDayLabel(position);
-            tvDayLabel.setText(dayLabel);
+            tvDate.setText(ForecastFormatter.formatDate(weather.dt * 1000));
+            tvDayLabel.setText(ForecastFormatter.getDayLabel(position));
 
              if (weather.main != null) {
-                String tempText;
-                if (weather.main.temp_min > 0 && weather.main.temp_max > 0) {
-                     int minTemp = (int) Math.round(weather.main.temp_min);
-                    int maxTemp = (int) Math.round(weather.main.temp_max);
-                    tempText = minTemp + "° " + maxTemp + "°";
-                } else {
-                     int temp = (int) Math.round(weather.main.temp);
-                    int feelsLike = (int) Math.round(weather.main.feels_like);
-                    tempText = temp + "° " + feelsLike + "°";
-                }
-                tvTemperature.setText(tempText);
+                tvTemperature.setText(ForecastFormatter.formatTemperature(weather.main));
             }
 
              if (weather.weather != null && !weather.weather.isEmpty()) {
@@ -101,80 +84,50 @@ public class WeatherForecastAdapter extends RecyclerView.Adapter<WeatherForecast
             }
         }
 
-        private String formatDate(long timestamp) {
-            SimpleDateFormat sdf = new SimpleDateFormat("dd MMM", Locale.getDefault());
-            return sdf.format(new Date(timestamp));
+        private void setWeatherIcon(String weatherMain) {
+            ivWeatherIcon.setImageResource(iconFor(weatherMain));
         }
+    }
 
-        private String getDayLabel(int position) {
-
-            Calendar today = Calendar.getInstance();
-            Calendar itemDate = Calendar.getInstance();
-            itemDate.add(Calendar.DAY_OF_YEAR, -position);
-
-             long diffInMillis = today.getTimeInMillis() - itemDate.getTimeInMillis();
-            int daysDiff = (int) (diffInMillis / (24 * 60 * 60 * 1000));
-
-            switch (daysDiff) {
-                case 0:
-                    return "Today";
-                case 1:
-                    return "Yesterday";
-                case 2:
-                    return "2 days ago";
-                case 3:
-                    return "3 days ago";
-                case 4:
-                    return "4 days ago";
-                case 5:
-                    return "5 days ago";
-                case 6:
-                    return "6 days ago";
+    // Shared with UpcomingForecastAdapter
+    static int iconFor(String weatherMain) {
+        int iconRes = R.drawable.cloudy_sunny;
+
+        if (weatherMain != null) {
+            switch (weatherMain.toLowerCase()) {
+                case "clear":
+                    iconRes = R.drawable.cloudy_sunny;
+                    break;
+                case "clouds":
+                    iconRes = R.drawable.cloudy_sunny;
+                    break;
+                case "rain":
+                case "drizzle":
+                    iconRes = R.drawable.umbrella;
+                    break;
+                case "thunderstorm":
+                    iconRes = R.drawable.umbrella;
+                    break;
+                case "snow":
+                    iconRes = R.drawable.cloudy_sunny;
+                    break;
+                case "mist":
+                case "smoke":
+                case "haze":
+                case "dust":
+                case "fog":
+                case "sand":
+                case "ash":
+                case "squall":
+                case "tornado":
+                    iconRes = R.drawable.cloudy_sunny;
+                    break;
                 default:
-                     SimpleDateFormat sdf = new SimpleDateFormat("EEEE", Locale.getDefault());
-                    return sdf.format(itemDate.getTime());
+                    iconRes = R.drawable.cloudy_sunny;
+                    break;
             }
         }
 
-        private void setWeatherIcon(String weatherMain) {
-            int iconRes = R.drawable.cloudy_sunny;
-
-            if (weatherMain != null) {
-                switch (weatherMain.toLowerCase()) {
-                    case "clear":
-                        iconRes = R.drawable.cloudy_sunny;
-                        break;
-                    case "clouds":
-                        iconRes = R.drawable.cloudy_sunny;
-                        break;
-                    case "rain":
-                    case "drizzle":
-                        iconRes = R.drawable.umbrella;
-                        break;
-                    case "thunderstorm":
-                        iconRes = R.drawable.umbrella;
-                        break;
-                    case "snow":
-                        iconRes = R.drawable.cloudy_sunny;
-                        break;
-                    case "mist":
-                    case "smoke":
-                    case "haze":
-                    case "dust":
-                    case "fog":
-                    case "sand":
-                    case "ash":
-                    case "squall":
-                    case "tornado":
-                        iconRes = R.drawable.cloudy_sunny;
-                        break;
-                    default:
-                        iconRes = R.drawable.cloudy_sunny;
-                        break;
-                }
-            }
-
-            ivWeatherIcon.setImageResource(iconRes);
-        }
+        return iconRes;
     }
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.myapplication.R;
 import com.example.myapplication.data.model.WeatherResponse;
+import com.example.myapplication.data.model.adapter.WeatherTypeAdapters;
 import com.example.myapplication.databinding.ActivityWeatherDetailBinding;
 import com.google.gson.Gson;
 
@@ -17,15 +18,23 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 
+import javax.inject.Inject;
+
+import dagger.hilt.android.AndroidEntryPoint;
+
+@AndroidEntryPoint
 public class WeatherDetailActivity extends AppCompatActivity {
 
     private static final String EXTRA_WEATHER_DATA = "weather_data";
     private ActivityWeatherDetailBinding binding;
     private WeatherResponse weatherData;
 
+    @Inject
+    Gson gson;
+
     public static Intent newIntent(Context context, WeatherResponse weather) {
         Intent intent = new Intent(context, WeatherDetailActivity.class);
-        intent.putExtra(EXTRA_WEATHER_DATA, new Gson().toJson(weather));
+        intent.putExtra(EXTRA_WEATHER_DATA, WeatherTypeAdapters.gson().toJson(weather));
         return intent;
     }
 
@@ -50,7 +59,7 @@ public class WeatherDetailActivity extends AppCompatActivity {
     private void getWeatherDataFromIntent() {
         String weatherJson = getIntent().getStringExtra(EXTRA_WEATHER_DATA);
         if (weatherJson != null) {
-            weatherData = new Gson().fromJson(weatherJson, WeatherResponse.class);
+            weatherData = gson.fromJson(weatherJson, WeatherResponse.class);
         }
     }
 
@@ -0,0 +1,99 @@
+package com.example.myapplication.common.worker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import androidx.work.ExistingWorkPolicy;
+
+import com.example.myapplication.common.Constants;
+
+import org.junit.Test;
+
+public class SyncCoordinatorTest {
+
+    private static final long MINUTE = 60 * 1000L;
+
+    @Test
+    public void periodicWindowIsHalfTheInterval() {
+        long window = SyncCoordinator.freshnessWindowMs(SyncCoordinator.Trigger.PERIODIC, 60);
+
+        assertEquals(30 * MINUTE, window);
+    }
+
+    @Test
+    public void periodicWindowIsCappedForLongIntervals() {
+        long window = SyncCoordinator.freshnessWindowMs(SyncCoordinator.Trigger.PERIODIC, 720);
+
+        assertEquals(Constants.SYNC_PERIODIC_FRESHNESS_MAX_MS, window);
+    }
+
+    @Test
+    public void manualAndLocationTriggersIgnoreTheInterval() {
+        assertEquals(Constants.SYNC_MANUAL_DEDUPE_MS,
+                SyncCoordinator.freshnessWindowMs(SyncCoordinator.Trigger.MANUAL, 720));
+        assertEquals(Constants.CACHE_FRESHNESS_WINDOW_MS,
+                SyncCoordinator.freshnessWindowMs(SyncCoordinator.Trigger.LOCATION_CHANGE, 60));
+    }
+
+    @Test
+    public void locationChangeAfterManualKeepsTheManualRun() {
+        SyncCoordinator.Plan plan = SyncCoordinator.plan(
+                SyncCoordinator.Trigger.MANUAL, false, SyncCoordinator.Trigger.LOCATION_CHANGE);
+
+        assertEquals(SyncCoordinator.Trigger.MANUAL, plan.pending);
+        assertNull(plan.policy);
+    }
+
+    @Test
+    public void manualAfterLocationChangeReplacesTheDelayedRun() {
+        SyncCoordinator.Plan plan = SyncCoordinator.plan(
+                SyncCoordinator.Trigger.LOCATION_CHANGE, false, SyncCoordinator.Trigger.MANUAL);
+
+        assertEquals(SyncCoordinator.Trigger.MANUAL, plan.pending);
+        assertEquals(ExistingWorkPolicy.REPLACE, plan.policy);
+    }
+
+    @Test
+    public void manualWhileRunningUpgradesThePendingRunWithoutReplacing() {
+        SyncCoordinator.Plan plan = SyncCoordinator.plan(
+                SyncCoordinator.Trigger.LOCATION_CHANGE, true, SyncCoordinator.Trigger.MANUAL);
+
+        assertEquals(SyncCoordinator.Trigger.MANUAL, plan.pending);
+        assertNull(plan.policy);
+    }
+
+    @Test
+    public void nothingPendingQueuesBehindARunningSync() {
+        for (boolean running : new boolean[]{false, true}) {
+            SyncCoordinator.Plan plan = SyncCoordinator.plan(null, running, SyncCoordinator.Trigger.MANUAL);
+
+            assertEquals(SyncCoordinator.Trigger.MANUAL, plan.pending);
+            assertEquals(ExistingWorkPolicy.APPEND_OR_REPLACE, plan.policy);
+        }
+    }
+
+    @Test
+    public void repeatedLocationChangeRestartsTheDebounce() {
+        SyncCoordinator.Plan plan = SyncCoordinator.plan(
+                SyncCoordinator.Trigger.LOCATION_CHANGE, false, SyncCoordinator.Trigger.LOCATION_CHANGE);
+
+        assertEquals(SyncCoordinator.Trigger.LOCATION_CHANGE, plan.pending);
+        assertEquals(ExistingWorkPolicy.REPLACE, plan.policy);
+    }
+
+    @Test
+    public void repeatedManualIsMerged() {
+        SyncCoordinator.Plan plan = SyncCoordinator.plan(
+                SyncCoordinator.Trigger.MANUAL, false, SyncCoordinator.Trigger.MANUAL);
+
+        assertEquals(SyncCoordinator.Trigger.MANUAL, plan.pending);
+        assertNull(plan.policy);
+    }
+
+    @Test
+    public void missingOrUnknownTriggerIsPeriodic() {
+        assertEquals(SyncCoordinator.Trigger.PERIODIC, SyncCoordinator.Trigger.fromName(null));
+        assertEquals(SyncCoordinator.Trigger.PERIODIC, SyncCoordinator.Trigger.fromName("bogus"));
+        assertEquals(SyncCoordinator.Trigger.MANUAL, SyncCoordinator.Trigger.fromName("MANUAL"));
+    }
+}
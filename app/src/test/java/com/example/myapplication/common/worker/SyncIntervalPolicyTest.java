@@ -0,0 +1,114 @@
+package com.example.myapplication.common.worker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class SyncIntervalPolicyTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+    private static final int CLEAR = 800;
+    private static final int RAIN = 500;
+
+    // 1h..12h, default 6h, 96 calls a day
+    private final SyncIntervalPolicy policy = new SyncIntervalPolicy(60, 720, 360, 96);
+
+    @Test
+    public void notEnoughHistoryUsesDefault() {
+        SyncIntervalPolicy.Decision decision = policy.decide(Collections.emptyList(), 1);
+
+        assertEquals(360, decision.intervalMinutes);
+        assertEquals(60, decision.flexMinutes());
+        assertTrue(decision.reason.startsWith("not enough history"));
+    }
+
+    @Test
+    public void steadyWeatherUsesLongestInterval() {
+        List<SyncIntervalPolicy.Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            samples.add(new SyncIntervalPolicy.Sample(i * 3 * HOUR, 24.0, 1012, CLEAR));
+        }
+
+        SyncIntervalPolicy.Decision decision = policy.decide(samples, 1);
+
+        assertEquals(720, decision.intervalMinutes);
+        assertEquals(0.0, decision.score, 1e-9);
+    }
+
+    @Test
+    public void fallingPressureShortensInterval() {
+        List<SyncIntervalPolicy.Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            // 0.5 hPa per hour, half of the fully volatile rate
+            samples.add(new SyncIntervalPolicy.Sample(i * 2 * HOUR, 24.0, 1012 - i, CLEAR));
+        }
+
+        SyncIntervalPolicy.Decision decision = policy.decide(samples, 1);
+
+        assertEquals(0.5, decision.score, 1e-9);
+        // 720 - 0.5 * 660 = 390
+        assertEquals(390, decision.intervalMinutes);
+        assertTrue(decision.reason, decision.reason.contains("pressure"));
+    }
+
+    @Test
+    public void conditionFlipsEveryRunUseShortestInterval() {
+        List<SyncIntervalPolicy.Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            samples.add(new SyncIntervalPolicy.Sample(i * HOUR, 20.0, 1008, i % 2 == 0 ? CLEAR : RAIN));
+        }
+
+        SyncIntervalPolicy.Decision decision = policy.decide(samples, 1);
+
+        assertEquals(1.0, decision.score, 1e-9);
+        assertEquals(60, decision.intervalMinutes);
+        assertTrue(decision.reason, decision.reason.contains("condition changes"));
+    }
+
+    @Test
+    public void budgetRaisesIntervalForManyCallsPerRun() {
+        List<SyncIntervalPolicy.Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            samples.add(new SyncIntervalPolicy.Sample(i * HOUR, 20.0, 1008, i % 2 == 0 ? CLEAR : RAIN));
+        }
+
+        // 8 calls a run within 96 a day allows a run every 2h at most
+        SyncIntervalPolicy.Decision decision = policy.decide(samples, 8);
+
+        assertEquals(120, decision.intervalMinutes);
+        assertTrue(decision.reason, decision.reason.contains("API budget"));
+    }
+
+    @Test
+    public void backToBackSamplesDoNotInflateRates() {
+        List<SyncIntervalPolicy.Sample> samples = new ArrayList<>();
+        samples.add(new SyncIntervalPolicy.Sample(0, 20.0, 1010, CLEAR));
+        // One minute later, counted as half an hour apart
+        samples.add(new SyncIntervalPolicy.Sample(60 * 1000L, 20.5, 1010, CLEAR));
+
+        SyncIntervalPolicy.Decision decision = policy.decide(samples, 1);
+
+        // 1 C/h against a 2 C/h scale
+        assertEquals(0.5, decision.score, 1e-9);
+    }
+
+    @Test
+    public void sameInputGivesSameDecision() {
+        List<SyncIntervalPolicy.Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            samples.add(new SyncIntervalPolicy.Sample(i * HOUR, 18.0 + (i % 3), 1010 - (i % 2), i < 4 ? CLEAR : RAIN));
+        }
+
+        SyncIntervalPolicy.Decision first = policy.decide(samples, 2);
+        SyncIntervalPolicy.Decision second = policy.decide(samples, 2);
+
+        assertEquals(first.intervalMinutes, second.intervalMinutes);
+        assertEquals(first.reason, second.reason);
+        assertEquals(0, first.intervalMinutes % SyncIntervalPolicy.STEP_MINUTES);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.myapplication.common.worker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.work.ListenableWorker;
+
+import com.example.myapplication.common.Constants;
+import com.example.myapplication.common.Resource;
+import com.example.myapplication.common.utils.GeoCell;
+import com.example.myapplication.data.local.SavedLocationEntity;
+import com.example.myapplication.data.local.WeatherCompactor;
+import com.example.myapplication.data.local.WeatherDatabase;
+import com.example.myapplication.data.local.WeatherWriteBuffer;
+import com.example.myapplication.data.model.WeatherResponse;
+import com.example.myapplication.data.model.adapter.WeatherTypeAdapters;
+import com.example.myapplication.data.network.ApiService;
+import com.example.myapplication.data.network.CallCoalescer;
+import com.example.myapplication.data.network.CallRegistry;
+import com.example.myapplication.data.repository.WeatherMemoryCache;
+import com.example.myapplication.data.repository.WeatherRepositoryImpl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * A saved location fetched through /group must count as synced on the next run, even
+ * though the API reports the city's coordinates rather than the saved ones. A run where
+ * every location got a client error fails rather than retrying forever.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class WeatherSyncWorkerTest {
+
+    // The API answers with the city centre, a few cells away from the saved point
+    private static final String GROUP_BODY = "{\"cnt\":1,\"list\":[{\"id\":1275841,\"name\":\"Bhopal\"," +
+            "\"coord\":{\"lat\":23.25,\"lon\":77.40},\"dt\":1750000000," +
+            "\"main\":{\"temp\":31.2,\"pressure\":1008,\"humidity\":62}," +
+            "\"weather\":[{\"id\":800,\"main\":\"Clear\",\"description\":\"clear sky\",\"icon\":\"01d\"}]}]}";
+    private static final long WINDOW_MS = 30 * 60 * 1000L;
+
+    private MockWebServer server;
+    private WeatherDatabase database;
+    private ScheduledExecutorService timer;
+    private WeatherWriteBuffer writeBuffer;
+    private WeatherRepositoryImpl repository;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, WeatherDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        timer = Executors.newSingleThreadScheduledExecutor();
+        // Flushed by hand in the test, the window never fires
+        writeBuffer = new WeatherWriteBuffer(database.weatherDao(), Runnable::run, timer, 60_000, 100);
+
+        ApiService apiService = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .callbackExecutor(Runnable::run)
+                .addConverterFactory(GsonConverterFactory.create(WeatherTypeAdapters.gson()))
+                .build()
+                .create(ApiService.class);
+
+        repository = new WeatherRepositoryImpl(
+                apiService,
+                database,
+                database.weatherDao(),
+                database.forecastDao(),
+                database.syncStateDao(),
+                writeBuffer,
+                new WeatherCompactor(database,
+                        context.getSharedPreferences(Constants.COMPACTION_PREFS_NAME, Context.MODE_PRIVATE),
+                        Constants.RAW_HISTORY_RETENTION_DAYS,
+                        Constants.HOURLY_HISTORY_RETENTION_DAYS, Constants.COMPACTION_BATCH_SIZE),
+                new WeatherMemoryCache(Constants.WEATHER_MEMORY_CACHE_TTL_MS, Constants.WEATHER_MEMORY_CACHE_MAX_ENTRIES),
+                new CallCoalescer<>(),
+                new CallRegistry(),
+                Runnable::run,
+                Runnable::run);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        timer.shutdownNow();
+        database.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void groupFetchedLocation_isSkippedOnTheNextRun() throws Exception {
+        server.enqueue(new MockResponse().setBody(GROUP_BODY));
+
+        SavedLocationEntity saved = new SavedLocationEntity("Home", 23.30, 77.45);
+        saved.id = 1;
+        saved.cityId = 1275841;
+        assertNotEquals(GeoCell.of(23.25, 77.40), saved.cell);
+
+        // The device location synced just now, only the saved one is left
+        SavedLocationEntity current = new SavedLocationEntity("Current location", 28.61, 77.21);
+        database.weatherDao().updateSyncState(current.cell, System.currentTimeMillis(), null, 0);
+        List<SavedLocationEntity> savedLocations = Collections.singletonList(saved);
+
+        List<SavedLocationEntity> firstRun = WeatherSyncWorker.collectTargets(current, savedLocations,
+                database.syncStateDao(), WINDOW_MS, System.currentTimeMillis());
+        assertEquals(Collections.singletonList(saved), firstRun);
+
+        Map<Long, Resource<WeatherResponse>> results = repository.getCurrentWeatherForLocations(firstRun);
+        assertTrue(results.get(saved.cell).isSuccess());
+        writeBuffer.flush();
+
+        List<SavedLocationEntity> secondRun = WeatherSyncWorker.collectTargets(current, savedLocations,
+                database.syncStateDao(), WINDOW_MS, System.currentTimeMillis());
+        assertTrue(secondRun.isEmpty());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void clientErrorOnEveryLocation_failsTheRun() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(401));
+        server.enqueue(new MockResponse().setResponseCode(401));
+
+        SavedLocationEntity grouped = new SavedLocationEntity("Home", 23.30, 77.45);
+        grouped.cityId = 1275841;
+        SavedLocationEntity single = new SavedLocationEntity("Office", 28.61, 77.21);
+        List<SavedLocationEntity> targets = Arrays.asList(grouped, single);
+
+        Map<Long, Resource<WeatherResponse>> results = repository.getCurrentWeatherForLocations(targets);
+
+        ListenableWorker.Result result = WeatherSyncWorker.toWorkResult(targets, results, 0);
+        assertTrue(result instanceof ListenableWorker.Result.Failure);
+    }
+
+    @Test
+    public void serverErrorOnEveryLocation_retriesTheRun() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        SavedLocationEntity single = new SavedLocationEntity("Office", 28.61, 77.21);
+        List<SavedLocationEntity> targets = Collections.singletonList(single);
+
+        Map<Long, Resource<WeatherResponse>> results = repository.getCurrentWeatherForLocations(targets);
+
+        ListenableWorker.Result result = WeatherSyncWorker.toWorkResult(targets, results, 0);
+        assertTrue(result instanceof ListenableWorker.Result.Retry);
+    }
+}
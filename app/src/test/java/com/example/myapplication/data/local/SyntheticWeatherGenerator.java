@@ -0,0 +1,102 @@
+package com.example.myapplication.data.local;
+
+import com.example.myapplication.common.utils.GeoCell;
+import com.example.myapplication.data.model.Weather;
+
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Fills weather_cache with a reproducible history: the same seed, row count,
+ * location count and day span always produce the same rows. Rows are spread
+ * evenly over the span ending at {@code now}, round-robin across locations.
+ */
+class SyntheticWeatherGenerator {
+
+    static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private static final String[] CONDITIONS = {"Clear", "Clouds", "Rain", "Haze", "Mist", "Snow"};
+
+    private final long seed;
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    SyntheticWeatherGenerator(long seed, int locations) {
+        this.seed = seed;
+        this.latitudes = new double[locations];
+        this.longitudes = new double[locations];
+
+        Random random = new Random(seed);
+        for (int i = 0; i < locations; i++) {
+            // 4 decimal places, like the coordinates the API echoes back
+            latitudes[i] = Math.round((random.nextDouble() * 130 - 60) * 10_000) / 10_000.0;
+            longitudes[i] = Math.round((random.nextDouble() * 360 - 180) * 10_000) / 10_000.0;
+        }
+    }
+
+    double latitude(int location) {
+        return latitudes[location];
+    }
+
+    double longitude(int location) {
+        return longitudes[location];
+    }
+
+    int timezone(int location) {
+        return (int) Math.round(longitudes[location] / 15) * 3600;
+    }
+
+    // Which location and time fill() gives row i, so tests can work out expected results
+    int locationOf(int row) {
+        return row % latitudes.length;
+    }
+
+    static long cachedAt(int row, int rows, int days, long now) {
+        long span = days * DAY_MILLIS;
+        return now - span + (span * row) / rows;
+    }
+
+    void fill(WeatherDatabase database, int rows, int days, long now) {
+        Random random = new Random(seed ^ rows);
+        WeatherDao dao = database.weatherDao();
+
+        database.runInTransaction(() -> {
+            for (int i = 0; i < rows; i++) {
+                dao.insertWeatherData(row(locationOf(i), cachedAt(i, rows, days, now), random));
+            }
+        });
+    }
+
+    private WeatherEntity row(int location, long cachedAt, Random random) {
+        WeatherEntity entity = new WeatherEntity();
+        entity.id = 1_000_000 + location;
+        entity.name = "City " + location;
+        entity.base = "stations";
+        entity.cod = 200;
+        entity.latitude = latitudes[location];
+        entity.longitude = longitudes[location];
+        entity.cell = GeoCell.of(entity.latitude, entity.longitude);
+        entity.timezone = timezone(location);
+        entity.dt = cachedAt / 1000;
+        entity.cachedAt = cachedAt;
+
+        entity.temperature = Math.round((random.nextGaussian() * 10 + 18) * 100) / 100.0;
+        entity.feelsLike = entity.temperature - 1.5;
+        entity.tempMin = entity.temperature - 2;
+        entity.tempMax = entity.temperature + 2;
+        entity.pressure = 990 + random.nextInt(40);
+        entity.humidity = random.nextInt(101);
+        entity.visibility = 10_000;
+        entity.windSpeed = random.nextInt(150) / 10.0;
+        entity.windDeg = random.nextInt(360);
+        entity.cloudiness = random.nextInt(101);
+
+        Weather weather = new Weather();
+        weather.id = 800 + random.nextInt(5);
+        weather.main = CONDITIONS[random.nextInt(CONDITIONS.length)];
+        weather.description = weather.main.toLowerCase();
+        weather.icon = "01d";
+        entity.weather = Collections.singletonList(weather);
+        return entity;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.myapplication.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Looper;
+
+import androidx.lifecycle.Observer;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.myapplication.common.utils.GeoCell;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A burst of writes re-runs the query once after the debounce window, and a query
+ * result equal to the last one is not emitted again. The main looper's clock only
+ * moves when the test advances it, so every invalidation of a burst lands inside the
+ * same window.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class TableObservingLiveDataTest {
+
+    private static final long DEBOUNCE_MILLIS = 300;
+
+    private WeatherDatabase database;
+    private ShadowLooper mainLooper;
+    private final AtomicInteger queries = new AtomicInteger();
+    private final List<Integer> emitted = new ArrayList<>();
+    private final Observer<Integer> observer = emitted::add;
+    private TableObservingLiveData<Integer> bhopalRows;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, WeatherDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        mainLooper = shadowOf(Looper.getMainLooper());
+
+        // Runs on the calling thread, so queries happen as soon as they are submitted
+        bhopalRows = new TableObservingLiveData<>(database, Runnable::run, DEBOUNCE_MILLIS,
+                new String[]{"weather_cache"}, this::countBhopalRows, Integer::equals);
+        bhopalRows.observeForever(observer);
+        mainLooper.idle();
+    }
+
+    @After
+    public void tearDown() {
+        bhopalRows.removeObserver(observer);
+        database.close();
+    }
+
+    @Test
+    public void activation_emitsInitialResult() {
+        assertEquals(1, queries.get());
+        assertEquals(Arrays.asList(0), emitted);
+    }
+
+    @Test
+    public void burstOfWrites_queriesOnceAfterWindow() throws InterruptedException {
+        insert("Bhopal");
+        insert("Bhopal");
+        insert("Bhopal");
+        awaitInvalidation();
+
+        // Still inside the window
+        mainLooper.idleFor(Duration.ofMillis(DEBOUNCE_MILLIS - 1));
+        assertEquals(1, queries.get());
+
+        mainLooper.idleFor(Duration.ofMillis(1));
+        mainLooper.idle();
+        assertEquals(2, queries.get());
+        assertEquals(Arrays.asList(0, 3), emitted);
+    }
+
+    @Test
+    public void unchangedResult_isNotEmitted() throws InterruptedException {
+        // Invalidates weather_cache without changing the count of Bhopal rows
+        insert("Delhi");
+        awaitInvalidation();
+        mainLooper.idleFor(Duration.ofMillis(DEBOUNCE_MILLIS));
+        mainLooper.idle();
+
+        assertEquals(2, queries.get());
+        assertEquals(Arrays.asList(0), emitted);
+    }
+
+    @Test
+    public void inactive_stopsQuerying() throws InterruptedException {
+        bhopalRows.removeObserver(observer);
+        insert("Bhopal");
+        Thread.sleep(300);
+        mainLooper.idleFor(Duration.ofMillis(DEBOUNCE_MILLIS));
+        assertEquals(1, queries.get());
+
+        // Catches up with one query on reactivation
+        bhopalRows.observeForever(observer);
+        mainLooper.idle();
+        assertEquals(2, queries.get());
+        assertEquals(Arrays.asList(0, 1), emitted);
+    }
+
+    // Room reports writes from its own threads. Waits for the first report to post the
+    // debounced refresh, then a little longer so the rest of the burst lands as well
+    private void awaitInvalidation() throws InterruptedException {
+        long waitUntil = System.currentTimeMillis() + 5_000;
+        while (mainLooper.getNextScheduledTaskTime().isZero() && System.currentTimeMillis() < waitUntil) {
+            Thread.sleep(10);
+        }
+        assertFalse("No invalidation reported", mainLooper.getNextScheduledTaskTime().isZero());
+        Thread.sleep(200);
+    }
+
+    private Integer countBhopalRows() {
+        queries.incrementAndGet();
+        try (Cursor cursor = database.getOpenHelper().getReadableDatabase()
+                .query("SELECT COUNT(*) FROM weather_cache WHERE name = 'Bhopal'")) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+
+    private void insert(String name) {
+        WeatherEntity entity = new WeatherEntity();
+        entity.name = name;
+        entity.latitude = 23.26;
+        entity.longitude = 77.41;
+        entity.cell = GeoCell.of(23.26, 77.41);
+        entity.cachedAt = System.currentTimeMillis();
+        entity.dt = entity.cachedAt / 1000;
+        database.weatherDao().insertWeatherData(entity);
+    }
+}
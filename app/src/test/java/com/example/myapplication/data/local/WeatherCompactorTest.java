@@ -0,0 +1,166 @@
+package com.example.myapplication.data.local;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.myapplication.common.utils.GeoCell;
+import com.example.myapplication.data.model.Weather;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Raw rows fold into hourly aggregates and hourly into daily ones. Buckets split across
+ * chunks keep exact per-condition counts, so the dominant condition is the true one.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class WeatherCompactorTest {
+
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+    private static final double LAT = 23.26;
+    private static final double LON = 77.41;
+    private static final long CELL = GeoCell.of(LAT, LON);
+
+    private static final int CLEAR = 800;
+    private static final int RAIN = 500;
+
+    private WeatherDatabase database;
+    private SharedPreferences prefs;
+    private long now;
+    // 10:00 UTC forty days ago, past raw retention
+    private long firstHour;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, WeatherDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        prefs = context.getSharedPreferences("compactor-test", Context.MODE_PRIVATE);
+        prefs.edit().clear().commit();
+
+        now = System.currentTimeMillis();
+        firstHour = (now / DAY_MILLIS - 40) * DAY_MILLIS + 10 * HOUR_MILLIS;
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void rawToHourlyToDaily_keepsTotalsAndConditionCounts() {
+        // Batches of three split the first hour: Rain, Clear, Clear | Rain, Rain
+        insert(firstHour, 10, RAIN);
+        insert(firstHour + 60_000, 12, CLEAR);
+        insert(firstHour + 120_000, 14, CLEAR);
+        insert(firstHour + 180_000, 16, RAIN);
+        insert(firstHour + 240_000, 18, RAIN);
+        insert(firstHour + HOUR_MILLIS, 20, CLEAR);
+        insert(firstHour + HOUR_MILLIS + 60_000, 22, CLEAR);
+        WeatherCompactor compactor = new WeatherCompactor(database, prefs, 30, 60, 3);
+
+        assertEquals(7, compactor.compactRawToHourly(now - 30 * DAY_MILLIS));
+        assertEquals(0, count("weather_cache"));
+
+        List<HourlyWeatherEntity> hours = database.weatherAggregateDao().getHourlyHistory(CELL, 0);
+        assertEquals(2, hours.size());
+        HourlyWeatherEntity first = hours.get(0);
+        assertEquals(firstHour / HOUR_MILLIS, first.hourBucket);
+        assertEquals(5, first.sampleCount);
+        assertEquals(10, first.minTemp, 0.0001);
+        assertEquals(18, first.maxTemp, 0.0001);
+        assertEquals(14, first.getMeanTemp(), 0.0001);
+        // Three rain samples, two of them in the second batch
+        assertEquals(RAIN, first.dominantConditionId);
+        assertEquals("Rain", first.dominantCondition);
+        assertEquals(3, first.dominantCount);
+        assertEquals(2, hours.get(1).sampleCount);
+        assertEquals(CLEAR, hours.get(1).dominantConditionId);
+
+        assertEquals(2, compactor.compactHourlyToDaily(firstHour / HOUR_MILLIS + 2));
+        assertEquals(0, count("weather_hourly"));
+
+        List<DailySummaryEntity> days = database.weatherAggregateDao().getDailyHistory(CELL, 0);
+        assertEquals(1, days.size());
+        DailySummaryEntity day = days.get(0);
+        assertEquals(WeatherEntity.dayBucketOf(firstHour, 0), day.dayBucket);
+        assertEquals(7, day.sampleCount);
+        assertEquals(10, day.minTemp, 0.0001);
+        assertEquals(22, day.maxTemp, 0.0001);
+        assertEquals(16, day.getMeanTemp(), 0.0001);
+        // Clear lost the first hour but has four samples to rain's three over the day
+        assertEquals(CLEAR, day.dominantConditionId);
+        assertEquals("Clear", day.dominantCondition);
+        assertEquals(4, day.dominantCount);
+    }
+
+    @Test
+    public void recentRows_areLeftAlone() {
+        insert(now - HOUR_MILLIS, 25, CLEAR);
+        WeatherCompactor compactor = new WeatherCompactor(database, prefs, 30, 60, 3);
+
+        assertEquals(0, compactor.compactRawToHourly(now - 30 * DAY_MILLIS));
+        assertEquals(1, count("weather_cache"));
+        assertEquals(0, count("weather_hourly"));
+    }
+
+    @Test
+    public void compactIfDue_skipsWithinInterval() {
+        // Expires a day and a half from now
+        insert(now - 28 * DAY_MILLIS - 12 * HOUR_MILLIS, 10, RAIN);
+        WeatherCompactor compactor = new WeatherCompactor(database, prefs, 30, 60, 3);
+
+        compactor.compactIfDue(now, 2 * DAY_MILLIS);
+        assertEquals(1, count("weather_cache"));
+
+        // Expired by now, but the last run was only a day ago
+        compactor.compactIfDue(now + DAY_MILLIS + 12 * HOUR_MILLIS, 2 * DAY_MILLIS);
+        assertEquals(1, count("weather_cache"));
+
+        compactor.compactIfDue(now + 2 * DAY_MILLIS, 2 * DAY_MILLIS);
+        assertEquals(0, count("weather_cache"));
+        assertEquals(1, count("weather_hourly"));
+    }
+
+    private void insert(long cachedAt, double temperature, int conditionId) {
+        Weather weather = new Weather();
+        weather.id = conditionId;
+        weather.main = conditionId == CLEAR ? "Clear" : "Rain";
+
+        WeatherEntity entity = new WeatherEntity();
+        entity.name = "Bhopal";
+        entity.latitude = LAT;
+        entity.longitude = LON;
+        entity.cell = CELL;
+        entity.cachedAt = cachedAt;
+        entity.dt = cachedAt / 1000;
+        entity.temperature = temperature;
+        entity.humidity = 60;
+        entity.weather = Collections.singletonList(weather);
+        database.weatherDao().insertWeatherData(entity);
+    }
+
+    private int count(String table) {
+        try (Cursor cursor = database.getOpenHelper().getReadableDatabase()
+                .query("SELECT COUNT(*) FROM " + table)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
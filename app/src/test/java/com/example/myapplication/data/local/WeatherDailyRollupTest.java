@@ -0,0 +1,89 @@
+package com.example.myapplication.data.local;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.myapplication.common.utils.GeoCell;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+/**
+ * The daily_weather rollup is kept per cell, so syncing several locations on the same
+ * day never moves one location's history onto another city.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class WeatherDailyRollupTest {
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final long NOW = 1_750_000_000_000L;
+
+    private WeatherDatabase database;
+    private WeatherDao dao;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, WeatherDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        dao = database.weatherDao();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void sameDayInTwoCities_keepsOneHistoryPerLocation() {
+        dao.insertWeatherData(row("Bhopal", 23.26, 77.41, NOW - 2 * DAY_MILLIS));
+        dao.insertWeatherData(row("Bhopal", 23.26, 77.41, NOW - 60_000));
+        // Written last on the same day, it used to take over the day's pointer
+        dao.insertWeatherData(row("Delhi", 28.61, 77.21, NOW));
+
+        List<WeatherWithConditions> bhopal = dao.getLast7DaysLatestWeatherPerDay(23.26, 77.41, NOW - 7 * DAY_MILLIS);
+        assertEquals(2, bhopal.size());
+        assertEquals("Bhopal", bhopal.get(0).entity.name);
+        assertEquals(NOW - 60_000, bhopal.get(0).entity.cachedAt);
+        assertEquals(NOW - 2 * DAY_MILLIS, bhopal.get(1).entity.cachedAt);
+
+        List<WeatherWithConditions> delhi = dao.getLast7DaysLatestWeatherPerDay(28.61, 77.21, NOW - 7 * DAY_MILLIS);
+        assertEquals(1, delhi.size());
+        assertEquals("Delhi", delhi.get(0).entity.name);
+    }
+
+    @Test
+    public void neighbouringCells_sameDay_returnOneRow() {
+        // Either side of a cell boundary, both within 0.01 degrees of the lookup
+        dao.insertWeatherData(row("Bhopal", 23.2599, 77.41, NOW - 60_000));
+        dao.insertWeatherData(row("Bhopal", 23.2601, 77.41, NOW));
+
+        List<WeatherWithConditions> days = dao.getLast7DaysLatestWeatherPerDay(23.26, 77.41, NOW - 7 * DAY_MILLIS);
+        assertEquals(1, days.size());
+        assertEquals(NOW, days.get(0).entity.cachedAt);
+    }
+
+    private static WeatherEntity row(String name, double latitude, double longitude, long cachedAt) {
+        WeatherEntity entity = new WeatherEntity();
+        entity.name = name;
+        entity.latitude = latitude;
+        entity.longitude = longitude;
+        entity.cell = GeoCell.of(latitude, longitude);
+        entity.timezone = 19800;
+        entity.cachedAt = cachedAt;
+        entity.dt = cachedAt / 1000;
+        return entity;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.myapplication.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.myapplication.common.Constants;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Latency of the WeatherDao queries as the history grows. Each size gets a fresh
+ * in-memory database filled by SyntheticWeatherGenerator, and every query reports
+ * its median time and the time per 1k rows, so the point where a query stops
+ * scaling shows up as that last column climbing. Results are checked against what
+ * the generator wrote, so a fast but wrong plan fails too.
+ *
+ * Sizes default to a quick run, pass larger ones with
+ * ./gradlew testDebugUnitTest --tests '*WeatherDaoScalingTest' -Pweather.scaling.rows=10000,100000,1000000
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class WeatherDaoScalingTest {
+
+    private static final long SEED = 42L;
+    private static final long NOW = 1_750_000_000_000L;
+    private static final int LOCATIONS = 2_000;
+    private static final int DAYS = 365 * 2;
+    private static final int RUNS = 15;
+
+    @Test
+    public void reportQueryLatencyByRowCount() {
+        SyntheticWeatherGenerator generator = new SyntheticWeatherGenerator(SEED, LOCATIONS);
+        System.out.println(String.format(Locale.US, "%-34s %10s %12s %12s",
+                "query", "rows", "median us", "us/1k rows"));
+
+        for (int rows : rowCounts()) {
+            WeatherDatabase database = newDatabase();
+            try {
+                generator.fill(database, rows, DAYS, NOW);
+                measureReads(database.weatherDao(), generator, rows);
+                measureCleanup(database, generator, rows);
+            } finally {
+                database.close();
+            }
+        }
+    }
+
+    private void measureReads(WeatherDao dao, SyntheticWeatherGenerator generator, int rows) {
+        long weekAgo = NOW - 7 * SyntheticWeatherGenerator.DAY_MILLIS;
+        double lat = generator.latitude(0);
+        double lon = generator.longitude(0);
+
+        report("getLast7DaysLatestWeatherPerDay", rows, median(() ->
+                assertNotNull(dao.getLast7DaysLatestWeatherPerDay(lat, lon, weekAgo))));
+        report("getRecordsCountPerDay", rows, median(() ->
+                assertNotNull(dao.getRecordsCountPerDay(weekAgo))));
+        report("getCachedWeatherByLocation", rows, median(() ->
+                assertNotNull(dao.getCachedWeatherByLocation(lat, lon))));
+
+        // Location 0 gets every LOCATIONS-th row
+        int lastRow = ((rows - 1) / LOCATIONS) * LOCATIONS;
+        Set<Long> recentDays = new HashSet<>();
+        for (int i = 0; i < rows; i += LOCATIONS) {
+            long cachedAt = SyntheticWeatherGenerator.cachedAt(i, rows, DAYS, NOW);
+            if (cachedAt >= weekAgo) {
+                recentDays.add(WeatherEntity.dayBucketOf(cachedAt, generator.timezone(0)));
+            }
+        }
+
+        List<WeatherWithConditions> days = dao.getLast7DaysLatestWeatherPerDay(lat, lon, weekAgo);
+        assertEquals(Math.min(7, recentDays.size()), days.size());
+        for (WeatherWithConditions day : days) {
+            assertEquals("City 0", day.entity.name);
+            assertTrue(day.entity.cachedAt >= weekAgo);
+        }
+
+        assertEquals(countRowsSince(rows, weekAgo), sumCounts(dao.getRecordsCountPerDay(weekAgo)));
+
+        WeatherWithConditions latest = dao.getCachedWeatherByLocation(lat, lon);
+        assertEquals("City 0", latest.entity.name);
+        assertEquals(SyntheticWeatherGenerator.cachedAt(lastRow, rows, DAYS, NOW), latest.entity.cachedAt);
+        assertEquals(1, latest.conditions.size());
+    }
+
+    // Destructive, so timed once per size after the reads
+    private void measureCleanup(WeatherDatabase database, SyntheticWeatherGenerator generator, int rows) {
+        WeatherDao dao = database.weatherDao();
+        WeatherCompactor compactor = new WeatherCompactor(database,
+                ApplicationProvider.getApplicationContext().getSharedPreferences(
+                        "scaling-" + rows, Context.MODE_PRIVATE),
+                Constants.RAW_HISTORY_RETENTION_DAYS,
+                Constants.HOURLY_HISTORY_RETENTION_DAYS,
+                Constants.COMPACTION_BATCH_SIZE);
+        long cutoff = NOW - (DAYS / 2) * SyntheticWeatherGenerator.DAY_MILLIS;
+        long start = System.nanoTime();
+        compactor.compactRawToHourly(cutoff);
+        long elapsed = System.nanoTime() - start;
+
+        report("compactRawToHourly (half)", rows, elapsed);
+
+        // Every expired row was folded into an hourly aggregate, everything newer is untouched
+        int kept = countRowsSince(rows, cutoff);
+        assertEquals(kept, sumCounts(dao.getRecordsCountPerDay(0)));
+        Long oldest = dao.getOldestCachedAt();
+        assertTrue(oldest == null || oldest >= cutoff);
+        assertEquals(rows - kept, queryLong(database, "SELECT COALESCE(SUM(sampleCount), 0) FROM weather_hourly"));
+        assertEquals(0, queryLong(database, "SELECT COUNT(*) FROM weather_condition " +
+                "WHERE weatherDbId NOT IN (SELECT dbId FROM weather_cache)"));
+    }
+
+    private static int countRowsSince(int rows, long since) {
+        int count = 0;
+        for (int i = 0; i < rows; i++) {
+            if (SyntheticWeatherGenerator.cachedAt(i, rows, DAYS, NOW) >= since) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int sumCounts(List<WeatherDao.DayCountResult> days) {
+        int total = 0;
+        for (WeatherDao.DayCountResult day : days) {
+            total += day.count;
+        }
+        return total;
+    }
+
+    private static long queryLong(WeatherDatabase database, String sql) {
+        try (Cursor cursor = database.getOpenHelper().getReadableDatabase().query(sql)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+
+    private long median(Runnable query) {
+        query.run(); // warm the page cache and statement cache
+
+        long[] samples = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            query.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2];
+    }
+
+    private void report(String query, int rows, long nanos) {
+        double micros = nanos / 1_000.0;
+        System.out.println(String.format(Locale.US, "%-34s %10d %12.1f %12.3f",
+                query, rows, micros, micros / (rows / 1_000.0)));
+    }
+
+    private WeatherDatabase newDatabase() {
+        Context context = ApplicationProvider.getApplicationContext();
+        return Room.inMemoryDatabaseBuilder(context, WeatherDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    private static int[] rowCounts() {
+        String[] parts = System.getProperty("weather.scaling.rows", "1000,10000,50000").split(",");
+        int[] counts = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            counts[i] = Integer.parseInt(parts[i].trim());
+        }
+        return counts;
+    }
+}
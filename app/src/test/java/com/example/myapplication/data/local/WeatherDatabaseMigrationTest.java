@@ -0,0 +1,159 @@
+package com.example.myapplication.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.myapplication.common.utils.GeoCell;
+import com.example.myapplication.data.local.converter.WeatherTypeConverter;
+import com.example.myapplication.data.model.Clouds;
+import com.example.myapplication.data.model.Coord;
+import com.example.myapplication.data.model.Main;
+import com.example.myapplication.data.model.Sys;
+import com.example.myapplication.data.model.Weather;
+import com.example.myapplication.data.model.Wind;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.Collections;
+
+/**
+ * Upgrades a version 1 database through every migration and checks the history survives.
+ * Schemas were never exported, so version 1 is created from the SQL Room generated for it.
+ * Room validates every table against the entities when it opens the migrated database,
+ * so a migration that leaves a column or index behind fails here too.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class WeatherDatabaseMigrationTest {
+
+    private static final String DB_NAME = "migration-test.db";
+
+    // weather_cache as version 1 declared it, nested objects stored as Gson JSON
+    private static final String V1_WEATHER_CACHE = "CREATE TABLE IF NOT EXISTS `weather_cache` (" +
+            "`dbId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `id` INTEGER NOT NULL, " +
+            "`coord` TEXT, `weather` TEXT, `base` TEXT, `main` TEXT, `visibility` INTEGER NOT NULL, " +
+            "`wind` TEXT, `clouds` TEXT, `dt` INTEGER NOT NULL, `sys` TEXT, `timezone` INTEGER NOT NULL, " +
+            "`name` TEXT, `cod` INTEGER NOT NULL, `latitude` REAL NOT NULL, `longitude` REAL NOT NULL, " +
+            "`temperature` REAL NOT NULL, `cachedAt` INTEGER NOT NULL)";
+
+    private static final double LAT = 23.26;
+    private static final double LON = 77.41;
+    private static final long CACHED_AT = 1_750_000_000_000L;
+
+    private Context context;
+    private File dbFile;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        dbFile = context.getDatabasePath(DB_NAME);
+        dbFile.getParentFile().mkdirs();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void migrate1To10_keepsHistory() {
+        createVersion1();
+
+        WeatherDatabase database = Room.databaseBuilder(context, WeatherDatabase.class, DB_NAME)
+                .addMigrations(WeatherDatabaseMigrations.ALL)
+                .allowMainThreadQueries()
+                .build();
+        try {
+            WeatherWithConditions row = database.weatherDao().getCachedWeatherByLocation(LAT, LON);
+            assertNotNull(row);
+
+            WeatherEntity entity = row.entity;
+            assertEquals("Bhopal", entity.name);
+            assertEquals(GeoCell.of(LAT, LON), entity.cell);
+            assertEquals(31.2, entity.temperature, 0.0001);
+            assertEquals(29.8, entity.feelsLike, 0.0001);
+            assertEquals(1008, entity.pressure);
+            assertEquals(62, entity.humidity);
+            assertEquals(3.6, entity.windSpeed, 0.0001);
+            assertEquals(40, entity.cloudiness);
+            assertEquals("IN", entity.country);
+            assertEquals(CACHED_AT, entity.cachedAt);
+
+            assertEquals(1, row.conditions.size());
+            assertEquals(800, row.conditions.get(0).conditionId);
+            assertEquals("clear sky", row.conditions.get(0).description);
+
+            SyncStateEntity state = database.syncStateDao().getSyncState(entity.cell);
+            assertNotNull(state);
+            assertEquals(CACHED_AT, state.lastSyncedAt);
+        } finally {
+            database.close();
+        }
+    }
+
+    private void createVersion1() {
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(dbFile, null);
+        try {
+            db.execSQL(V1_WEATHER_CACHE);
+
+            Coord coord = new Coord();
+            coord.lat = LAT;
+            coord.lon = LON;
+            Weather weather = new Weather();
+            weather.id = 800;
+            weather.main = "Clear";
+            weather.description = "clear sky";
+            weather.icon = "01d";
+            Main main = new Main();
+            main.temp = 31.2;
+            main.feels_like = 29.8;
+            main.pressure = 1008;
+            main.humidity = 62;
+            Wind wind = new Wind();
+            wind.speed = 3.6;
+            wind.deg = 270;
+            Clouds clouds = new Clouds();
+            clouds.all = 40;
+            Sys sys = new Sys();
+            sys.country = "IN";
+
+            ContentValues values = new ContentValues();
+            values.put("id", 1275841);
+            values.put("coord", WeatherTypeConverter.fromCoord(coord));
+            values.put("weather", WeatherTypeConverter.fromWeatherList(Collections.singletonList(weather)));
+            values.put("base", "stations");
+            values.put("main", WeatherTypeConverter.fromMain(main));
+            values.put("visibility", 10000);
+            values.put("wind", WeatherTypeConverter.fromWind(wind));
+            values.put("clouds", WeatherTypeConverter.fromClouds(clouds));
+            values.put("dt", CACHED_AT / 1000);
+            values.put("sys", WeatherTypeConverter.fromSys(sys));
+            values.put("timezone", 19800);
+            values.put("name", "Bhopal");
+            values.put("cod", 200);
+            values.put("latitude", LAT);
+            values.put("longitude", LON);
+            values.put("temperature", main.temp);
+            values.put("cachedAt", CACHED_AT);
+            db.insertOrThrow("weather_cache", null, values);
+
+            db.setVersion(1);
+        } finally {
+            db.close();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.myapplication.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.myapplication.common.utils.GeoCell;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Rows enqueued within one window reach weather_cache in a single write, and a write
+ * that fails keeps its rows pending instead of dropping them.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class WeatherWriteBufferTest {
+
+    private static final long NOW = 1_750_000_000_000L;
+    private static final long WINDOW_MILLIS = 100;
+
+    // Makes every insert into weather_cache fail, as a full disk would
+    private static final String FAIL_INSERTS = "CREATE TRIGGER fail_inserts BEFORE INSERT ON weather_cache " +
+            "BEGIN SELECT RAISE(ABORT, 'disk full'); END";
+
+    private WeatherDatabase database;
+    private ScheduledExecutorService timer;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, WeatherDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        timer = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        timer.shutdownNow();
+        database.close();
+    }
+
+    @Test
+    public void enqueueWithinWindow_writesOnceWindowEnds() throws InterruptedException {
+        WeatherWriteBuffer buffer = newBuffer(WINDOW_MILLIS, 50);
+
+        buffer.enqueue(row("Bhopal", 23.26, 77.41, NOW));
+        buffer.enqueue(row("Delhi", 28.61, 77.21, NOW));
+        buffer.enqueue(row("Pune", 18.52, 73.86, NOW));
+
+        assertEquals(3, buffer.pendingCount());
+        assertEquals(0, cachedRows());
+
+        long waitUntil = System.currentTimeMillis() + 20 * WINDOW_MILLIS;
+        while (buffer.pendingCount() > 0 && System.currentTimeMillis() < waitUntil) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, buffer.pendingCount());
+        assertEquals(3, cachedRows());
+    }
+
+    @Test
+    public void flushBeforeWindowEnds_writesEverythingPending() {
+        WeatherWriteBuffer buffer = newBuffer(60_000, 50);
+
+        buffer.enqueue(row("Bhopal", 23.26, 77.41, NOW));
+        buffer.enqueue(row("Delhi", 28.61, 77.21, NOW));
+        buffer.flush();
+
+        assertEquals(0, buffer.pendingCount());
+        assertEquals(2, cachedRows());
+    }
+
+    @Test
+    public void fullBatch_writesWithoutWaitingForWindow() {
+        WeatherWriteBuffer buffer = newBuffer(60_000, 2);
+
+        buffer.enqueue(row("Bhopal", 23.26, 77.41, NOW));
+        buffer.enqueue(row("Delhi", 28.61, 77.21, NOW));
+
+        assertEquals(0, buffer.pendingCount());
+        assertEquals(2, cachedRows());
+    }
+
+    @Test
+    public void failedWrite_keepsRowsPendingAndRethrows() {
+        WeatherWriteBuffer buffer = newBuffer(60_000, 50);
+        database.getOpenHelper().getWritableDatabase().execSQL(FAIL_INSERTS);
+
+        buffer.enqueue(row("Bhopal", 23.26, 77.41, NOW));
+        buffer.enqueue(row("Delhi", 28.61, 77.21, NOW));
+        try {
+            buffer.flush();
+            fail("flush should rethrow the failed write");
+        } catch (RuntimeException expected) {
+            // The worker turns this into Result.retry()
+        }
+        assertEquals(2, buffer.pendingCount());
+        assertEquals(0, cachedRows());
+
+        // Rows enqueued after the failure join the batch that is retried
+        buffer.enqueue(row("Pune", 18.52, 73.86, NOW));
+        database.getOpenHelper().getWritableDatabase().execSQL("DROP TRIGGER fail_inserts");
+        buffer.flush();
+
+        assertEquals(0, buffer.pendingCount());
+        assertEquals(3, cachedRows());
+    }
+
+    @Test
+    public void failedBackgroundWrite_doesNotThrowAndKeepsRows() {
+        WeatherWriteBuffer buffer = newBuffer(60_000, 50);
+        database.getOpenHelper().getWritableDatabase().execSQL(FAIL_INSERTS);
+
+        buffer.enqueue(row("Bhopal", 23.26, 77.41, NOW));
+        buffer.flushAsync();
+
+        assertEquals(1, buffer.pendingCount());
+        assertEquals(0, cachedRows());
+    }
+
+    // Runs database work on the calling thread so flushAsync() is synchronous here
+    private WeatherWriteBuffer newBuffer(long windowMillis, int maxBatchSize) {
+        return new WeatherWriteBuffer(database.weatherDao(), Runnable::run, timer, windowMillis, maxBatchSize);
+    }
+
+    private int cachedRows() {
+        try (Cursor cursor = database.getOpenHelper().getReadableDatabase()
+                .query("SELECT COUNT(*) FROM weather_cache")) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+
+    private static WeatherEntity row(String name, double latitude, double longitude, long cachedAt) {
+        WeatherEntity entity = new WeatherEntity();
+        entity.name = name;
+        entity.latitude = latitude;
+        entity.longitude = longitude;
+        entity.cell = GeoCell.of(latitude, longitude);
+        entity.timezone = 19800;
+        entity.cachedAt = cachedAt;
+        entity.dt = cachedAt / 1000;
+        return entity;
+    }
+}
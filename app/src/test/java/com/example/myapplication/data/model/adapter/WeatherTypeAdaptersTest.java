@@ -0,0 +1,60 @@
+package com.example.myapplication.data.model.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.example.myapplication.data.model.WeatherResponse;
+
+import org.junit.Test;
+
+/**
+ * OpenWeather sends null for readings a station did not report. Those fields keep their
+ * defaults instead of failing the whole response.
+ */
+public class WeatherTypeAdaptersTest {
+
+    @Test
+    public void nullPrimitives_keepDefaults() {
+        String json = "{\"id\":1275841,\"coord\":{\"lon\":null,\"lat\":23.26}," +
+                "\"weather\":[{\"id\":null,\"main\":\"Clear\",\"description\":null,\"icon\":\"01d\"}]," +
+                "\"main\":{\"temp\":31.2,\"feels_like\":null,\"pressure\":null,\"humidity\":62,\"sea_level\":null}," +
+                "\"visibility\":null,\"wind\":{\"speed\":null,\"deg\":270},\"clouds\":{\"all\":null}," +
+                "\"dt\":1750000000,\"sys\":{\"type\":null,\"country\":\"IN\",\"sunrise\":null,\"sunset\":1750040000}," +
+                "\"timezone\":19800,\"name\":\"Bhopal\",\"cod\":null}";
+
+        WeatherResponse response = WeatherTypeAdapters.gson().fromJson(json, WeatherResponse.class);
+
+        assertEquals(1275841, response.id);
+        assertEquals(0.0, response.coord.lon, 0.0);
+        assertEquals(23.26, response.coord.lat, 0.0);
+        assertEquals(0, response.weather.get(0).id);
+        assertEquals("Clear", response.weather.get(0).main);
+        assertNull(response.weather.get(0).description);
+        assertEquals(31.2, response.main.temp, 0.0);
+        assertEquals(0.0, response.main.feels_like, 0.0);
+        assertEquals(0, response.main.pressure);
+        assertEquals(62, response.main.humidity);
+        assertEquals(0, response.visibility);
+        assertEquals(0.0, response.wind.speed, 0.0);
+        assertEquals(270, response.wind.deg);
+        assertEquals(0, response.clouds.all);
+        assertEquals(0, response.sys.sunrise);
+        assertEquals(1750040000L, response.sys.sunset);
+        assertEquals("Bhopal", response.name);
+        assertEquals(0, response.cod);
+    }
+
+    @Test
+    public void nullObjects_readAsNull() {
+        String json = "{\"coord\":null,\"weather\":null,\"main\":null,\"wind\":null,\"sys\":null,\"name\":\"Bhopal\"}";
+
+        WeatherResponse response = WeatherTypeAdapters.gson().fromJson(json, WeatherResponse.class);
+
+        assertNull(response.coord);
+        assertNull(response.weather);
+        assertNull(response.main);
+        assertNull(response.wind);
+        assertNull(response.sys);
+        assertEquals("Bhopal", response.name);
+    }
+}
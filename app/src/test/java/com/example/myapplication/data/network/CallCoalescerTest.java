@@ -0,0 +1,153 @@
+package com.example.myapplication.data.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.myapplication.data.model.WeatherResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+public class CallCoalescerTest {
+
+    private static final String BODY = "{\"id\":1275841,\"name\":\"Bhopal\",\"cod\":200," +
+            "\"coord\":{\"lat\":23.26,\"lon\":77.41},\"main\":{\"temp\":31.2,\"humidity\":62}}";
+    private static final int CALLERS = 8;
+
+    private MockWebServer server;
+    private ApiService apiService;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        apiService = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(ApiService.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void overlappingCallers_shareOneUpstreamRequest() throws Exception {
+        // The delay keeps the first request in flight while the others arrive
+        server.enqueue(new MockResponse().setBody(BODY).setBodyDelay(500, TimeUnit.MILLISECONDS));
+
+        CallCoalescer<Long, WeatherResponse> coalescer = new CallCoalescer<>();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(CALLERS);
+        List<WeatherResponse> results = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < CALLERS; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                coalescer.enqueue(42L,
+                        () -> apiService.getCurrentWeather(23.26, 77.41, "key", "metric", null),
+                        collectInto(results, done));
+            }).start();
+        }
+
+        start.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(CALLERS, results.size());
+        for (WeatherResponse result : results) {
+            assertNotNull(result);
+            assertEquals("Bhopal", result.name);
+        }
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    @Test
+    public void completedFlight_isNotReused() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY));
+        server.enqueue(new MockResponse().setBody(BODY));
+
+        CallCoalescer<Long, WeatherResponse> coalescer = new CallCoalescer<>();
+        List<WeatherResponse> results = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < 2; i++) {
+            CountDownLatch done = new CountDownLatch(1);
+            assertTrue(coalescer.enqueue(42L,
+                    () -> apiService.getCurrentWeather(23.26, 77.41, "key", "metric", null),
+                    collectInto(results, done)));
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(2, server.getRequestCount());
+        assertEquals(2, results.size());
+    }
+
+    @Test
+    public void upstreamHook_runsOnceWhenTheStarterDetaches() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY).setBodyDelay(300, TimeUnit.MILLISECONDS));
+
+        CallCoalescer<Long, WeatherResponse> coalescer = new CallCoalescer<>();
+        List<WeatherResponse> persisted = new CopyOnWriteArrayList<>();
+        List<WeatherResponse> results = new CopyOnWriteArrayList<>();
+        CountDownLatch starterDone = new CountDownLatch(1);
+        CountDownLatch joinerDone = new CountDownLatch(1);
+
+        Callback<WeatherResponse> starter = collectInto(results, starterDone);
+        assertTrue(coalescer.enqueue(42L,
+                () -> apiService.getCurrentWeather(23.26, 77.41, "key", "metric", null),
+                response -> persisted.add(response.body()),
+                starter));
+        assertFalse(coalescer.enqueue(42L,
+                () -> apiService.getCurrentWeather(23.26, 77.41, "key", "metric", null),
+                response -> persisted.add(response.body()),
+                collectInto(results, joinerDone)));
+
+        // The starter leaves, the joiner keeps the call alive
+        assertFalse(coalescer.detach(42L, starter));
+        assertTrue(joinerDone.await(5, TimeUnit.SECONDS));
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, persisted.size());
+        assertEquals("Bhopal", persisted.get(0).name);
+        assertEquals(1, results.size());
+        assertEquals(1, starterDone.getCount());
+    }
+
+    private static Callback<WeatherResponse> collectInto(List<WeatherResponse> results, CountDownLatch done) {
+        return new Callback<WeatherResponse>() {
+            @Override
+            public void onResponse(Call<WeatherResponse> call, Response<WeatherResponse> response) {
+                results.add(response.body());
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Call<WeatherResponse> call, Throwable t) {
+                done.countDown();
+            }
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.myapplication.data.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class CallRegistryTest {
+
+    private final CallRegistry registry = new CallRegistry();
+
+    @Test
+    public void cancellingScope_leavesOtherScopesAlone() {
+        CallRegistry.Scope main = registry.openScope("main");
+        CallRegistry.Scope search = registry.openScope("search");
+        AtomicInteger mainCancels = new AtomicInteger();
+        AtomicInteger searchCancels = new AtomicInteger();
+        CallRegistry.Request mainRequest = main.start();
+        mainRequest.onCancel(mainCancels::incrementAndGet);
+        CallRegistry.Request searchRequest = search.start();
+        searchRequest.onCancel(searchCancels::incrementAndGet);
+
+        main.cancel();
+
+        assertEquals(1, mainCancels.get());
+        assertTrue(mainRequest.isCancelled());
+        assertFalse(mainRequest.finish());
+        assertEquals(1, main.cancelledCount());
+        assertEquals(0, main.inFlightCount());
+
+        assertEquals(0, searchCancels.get());
+        assertTrue(searchRequest.finish());
+        assertEquals(1, search.finishedCount());
+        assertEquals(0, search.cancelledCount());
+    }
+
+    @Test
+    public void finishedRequest_isNotCancelledLater() {
+        CallRegistry.Scope scope = registry.openScope("main");
+        AtomicInteger cancels = new AtomicInteger();
+        CallRegistry.Request request = scope.start();
+        request.onCancel(cancels::incrementAndGet);
+
+        assertTrue(request.finish());
+        scope.cancel();
+
+        assertEquals(0, cancels.get());
+        assertEquals(1, scope.finishedCount());
+        assertEquals(0, scope.cancelledCount());
+    }
+
+    @Test
+    public void closedScope_cancelsLateRequests() {
+        CallRegistry.Scope scope = registry.openScope("main");
+        scope.close();
+
+        AtomicInteger cancels = new AtomicInteger();
+        CallRegistry.Request late = scope.start();
+        assertTrue(late.isCancelled());
+        // Set after the cancellation, so it runs straight away
+        late.onCancel(cancels::incrementAndGet);
+
+        assertEquals(1, cancels.get());
+        assertEquals(1, scope.startedCount());
+        assertEquals(1, scope.cancelledCount());
+        assertTrue(registry.describeScopes().isEmpty());
+    }
+
+    @Test
+    public void cancelAll_reachesEveryOpenScope() {
+        CallRegistry.Scope main = registry.openScope("main");
+        CallRegistry.Scope search = registry.openScope("search");
+        CallRegistry.Request mainRequest = main.start();
+        CallRegistry.Request searchRequest = search.start();
+        assertEquals(2, registry.describeScopes().size());
+
+        registry.cancelAll();
+
+        assertTrue(mainRequest.isCancelled());
+        assertTrue(searchRequest.isCancelled());
+        // Cancelled scopes stay open for new requests
+        assertFalse(main.start().isCancelled());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.myapplication.data.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.example.myapplication.data.local.ForecastEntity;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+/**
+ * Null readings in a /forecast entry leave the entity defaults and the rest of the
+ * response still parses.
+ */
+public class ForecastParserTest {
+
+    @Test
+    public void nullValues_keepDefaults() throws IOException {
+        String json = "{\"list\":[" +
+                "{\"dt\":1750000000,\"main\":{\"temp\":31.2,\"feels_like\":null,\"pressure\":null,\"humidity\":62}," +
+                "\"weather\":[{\"id\":800,\"main\":\"Clear\",\"description\":null}]," +
+                "\"clouds\":{\"all\":null},\"wind\":{\"speed\":null,\"deg\":270},\"pop\":null}," +
+                "{\"dt\":1750010800,\"main\":null,\"weather\":null,\"clouds\":null,\"wind\":null}" +
+                "],\"city\":{\"name\":null,\"timezone\":19800}}";
+
+        List<ForecastEntity> entries = ForecastParser.parse(new StringReader(json), 42L, 23.26, 77.41, 1L);
+
+        assertEquals(2, entries.size());
+        ForecastEntity first = entries.get(0);
+        assertEquals(1750000000L, first.targetTime);
+        assertEquals(31.2, first.temperature, 0.0);
+        assertEquals(0.0, first.feelsLike, 0.0);
+        assertEquals(0, first.pressure);
+        assertEquals(62, first.humidity);
+        assertEquals(800, first.conditionId);
+        assertNull(first.description);
+        assertEquals(0, first.cloudiness);
+        assertEquals(0.0, first.windSpeed, 0.0);
+        assertEquals(270, first.windDeg);
+        assertEquals(0.0, first.pop, 0.0);
+        assertNull(first.cityName);
+        assertEquals(19800, first.timezone);
+
+        ForecastEntity second = entries.get(1);
+        assertEquals(1750010800L, second.targetTime);
+        assertEquals(0.0, second.temperature, 0.0);
+        assertEquals(42L, second.cell);
+    }
+}
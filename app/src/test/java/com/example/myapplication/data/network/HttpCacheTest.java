@@ -0,0 +1,135 @@
+package com.example.myapplication.data.network;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.myapplication.data.model.WeatherResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+public class HttpCacheTest {
+
+    private static final String BODY = "{\"name\":\"Bhopal\"}";
+
+    @Rule
+    public TemporaryFolder cacheDir = new TemporaryFolder();
+
+    private MockWebServer server;
+    private HttpCacheMetrics metrics;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        metrics = new HttpCacheMetrics();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void weakHeaders_areCachedForPolicyLifetime() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY));
+        OkHttpClient client = client(60);
+
+        assertEquals(BODY, get(client));
+        assertEquals(BODY, get(client));
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, metrics.getMissCount());
+        assertEquals(1, metrics.getHitCount());
+        assertEquals(0, metrics.getConditionalHitCount());
+    }
+
+    @Test
+    public void expiredEntry_isRevalidatedWithEtag() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY).setHeader("ETag", "\"v1\""));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+        // A zero lifetime forces revalidation on every request after the first
+        OkHttpClient client = client(0);
+
+        assertEquals(BODY, get(client));
+        assertEquals(BODY, get(client));
+
+        server.takeRequest();
+        RecordedRequest conditional = server.takeRequest();
+        assertEquals("\"v1\"", conditional.getHeader("If-None-Match"));
+
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, metrics.getMissCount());
+        assertEquals(1, metrics.getConditionalHitCount());
+        assertEquals(0, metrics.getHitCount());
+    }
+
+    @Test
+    public void lastModified_isUsedWhenNoEtag() throws Exception {
+        String lastModified = "Mon, 01 Jan 2024 00:00:00 GMT";
+        server.enqueue(new MockResponse().setBody(BODY).setHeader("Last-Modified", lastModified));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        OkHttpClient client = client(0);
+
+        assertEquals(BODY, get(client));
+        assertEquals(BODY, get(client));
+
+        server.takeRequest();
+        assertEquals(lastModified, server.takeRequest().getHeader("If-Modified-Since"));
+        assertEquals(1, metrics.getConditionalHitCount());
+    }
+
+    @Test
+    public void forceNetwork_skipsFreshEntry() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"name\":\"Old\"}"));
+        server.enqueue(new MockResponse().setBody("{\"name\":\"New\"}"));
+        OkHttpClient client = client(600);
+        ApiService apiService = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(ApiService.class);
+
+        // Fills the cache, the entry stays fresh for 10 minutes
+        assertEquals("Old", apiService.getCurrentWeather(23.26, 77.41, "key", "metric", null).execute().body().name);
+
+        // What a pull-to-refresh or sync sends
+        WeatherResponse refreshed = apiService.getCurrentWeather(23.26, 77.41, "key", "metric",
+                CacheControl.FORCE_NETWORK.toString()).execute().body();
+
+        assertEquals("New", refreshed.name);
+        assertEquals(2, server.getRequestCount());
+        assertEquals(0, metrics.getHitCount());
+    }
+
+    private OkHttpClient client(long maxAgeSeconds) throws IOException {
+        return new OkHttpClient.Builder()
+                .cache(new Cache(cacheDir.newFolder(), 1024 * 1024))
+                .addInterceptor(metrics)
+                .addNetworkInterceptor(new CachePolicyInterceptor(maxAgeSeconds))
+                .build();
+    }
+
+    private String get(OkHttpClient client) throws IOException {
+        Request request = new Request.Builder().url(server.url("/weather?lat=23.26&lon=77.41")).build();
+        try (Response response = client.newCall(request).execute()) {
+            return response.body().string();
+        }
+    }
+}
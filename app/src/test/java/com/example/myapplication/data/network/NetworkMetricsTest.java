@@ -0,0 +1,89 @@
+package com.example.myapplication.data.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+public class NetworkMetricsTest {
+
+    private static final String BODY = "{\"name\":\"Bhopal\"}";
+
+    private MockWebServer server;
+    private NetworkMetrics metrics;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        metrics = new NetworkMetrics();
+        client = new OkHttpClient.Builder()
+                .eventListenerFactory(new NetworkMetricsEventListener.Factory(metrics))
+                .addInterceptor(new NetworkMetricsInterceptor(metrics))
+                .readTimeout(1, TimeUnit.SECONDS)
+                .retryOnConnectionFailure(false)
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void outcomes_areCountedPerCall() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY));
+        server.enqueue(new MockResponse().setResponseCode(401));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+
+        assertEquals(BODY, get());
+        get();
+        get();
+        try {
+            get();
+        } catch (IOException expected) {
+        }
+
+        assertEquals(1, metrics.getSuccessfulCalls());
+        assertEquals(1, metrics.getClientErrors());
+        assertEquals(1, metrics.getServerErrors());
+        assertEquals(1, metrics.getFailedCalls());
+        assertEquals(4, metrics.getCallMillis().getCount());
+    }
+
+    @Test
+    public void timingsAndSizes_areRecorded() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY));
+
+        get();
+
+        // One connection for the call, plain HTTP so no TLS handshake
+        assertEquals(1, metrics.getConnectMillis().getCount());
+        assertEquals(0, metrics.getTlsMillis().getCount());
+        assertEquals(1, metrics.getTimeToFirstByteMillis().getCount());
+        assertEquals(1, metrics.getBytesIn().getCount());
+        assertEquals(BODY.length(), metrics.getBytesIn().getSum());
+        assertTrue(metrics.toString().contains("ok=1"));
+    }
+
+    private String get() throws IOException {
+        Request request = new Request.Builder().url(server.url("/weather")).build();
+        try (Response response = client.newCall(request).execute()) {
+            return response.body().string();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.myapplication.data.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import androidx.lifecycle.MutableLiveData;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class ResultStreamRegistryTest {
+
+    private final ResultStreamRegistry<String> registry = new ResultStreamRegistry<>();
+
+    @Test
+    public void sameKey_sharesOneStream() {
+        MutableLiveData<String> first = registry.obtain(1L);
+
+        assertSame(first, registry.obtain(1L));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void differentKeys_doNotOverwriteEachOther() {
+        MutableLiveData<String> bhopal = registry.obtain(1L);
+        MutableLiveData<String> delhi = registry.obtain(2L);
+        assertNotSame(bhopal, delhi);
+
+        bhopal.setValue("Bhopal");
+        delhi.setValue("Delhi");
+
+        assertEquals("Bhopal", registry.obtain(1L).getValue());
+        assertEquals("Delhi", registry.obtain(2L).getValue());
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void unreferencedStream_isDropped() throws InterruptedException {
+        registry.obtain(1L).setValue("Bhopal");
+        MutableLiveData<String> kept = registry.obtain(2L);
+
+        // Collection is up to the VM, give it a few chances
+        for (int i = 0; i < 20 && registry.size() > 1; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, registry.size());
+        assertSame(kept, registry.obtain(2L));
+        // A fresh stream, the collected one's value is gone with it
+        assertNull(registry.obtain(1L).getValue());
+    }
+}
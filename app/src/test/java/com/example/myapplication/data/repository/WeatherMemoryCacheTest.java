@@ -0,0 +1,83 @@
+package com.example.myapplication.data.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.example.myapplication.data.model.WeatherResponse;
+
+import org.junit.Test;
+
+public class WeatherMemoryCacheTest {
+
+    private static final long TTL_MILLIS = 60_000;
+
+    private final WeatherResponse bhopal = response("Bhopal");
+    private final WeatherResponse delhi = response("Delhi");
+    private final WeatherResponse pune = response("Pune");
+
+    @Test
+    public void full_evictsLeastRecentlyUsed() {
+        WeatherMemoryCache cache = new WeatherMemoryCache(TTL_MILLIS, 2);
+        cache.put(23.26, 77.41, bhopal);
+        cache.put(28.61, 77.21, delhi);
+
+        // Reading Bhopal makes Delhi the eldest
+        assertSame(bhopal, cache.get(23.26, 77.41));
+        cache.put(18.52, 73.86, pune);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get(28.61, 77.21));
+        assertSame(bhopal, cache.get(23.26, 77.41));
+        assertSame(pune, cache.get(18.52, 73.86));
+    }
+
+    @Test
+    public void sameCell_sharesOneEntry() {
+        WeatherMemoryCache cache = new WeatherMemoryCache(TTL_MILLIS, 2);
+        cache.put(23.2601, 77.4101, bhopal);
+
+        assertSame(bhopal, cache.get(23.2604, 77.4108));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void expiredEntry_isMissAndRemoved() {
+        WeatherMemoryCache cache = new WeatherMemoryCache(TTL_MILLIS, 2);
+        cache.put(23.26, 77.41, bhopal, System.currentTimeMillis() - TTL_MILLIS - 1);
+
+        assertNull(cache.get(23.26, 77.41));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getMissCount());
+        // Removed for staleness, not capacity
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void counters_trackHitsAndMisses() {
+        WeatherMemoryCache cache = new WeatherMemoryCache(TTL_MILLIS, 2);
+        assertEquals(0.0, cache.getHitRate(), 0.0);
+
+        cache.put(23.26, 77.41, bhopal);
+        cache.get(23.26, 77.41);
+        cache.get(23.26, 77.41);
+        cache.get(23.26, 77.41);
+        cache.get(28.61, 77.21);
+
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.75, cache.getHitRate(), 0.0001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroCapacity_isRejected() {
+        new WeatherMemoryCache(TTL_MILLIS, 0);
+    }
+
+    private static WeatherResponse response(String name) {
+        WeatherResponse response = new WeatherResponse();
+        response.name = name;
+        return response;
+    }
+}
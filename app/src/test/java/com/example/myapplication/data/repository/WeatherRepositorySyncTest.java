@@ -0,0 +1,171 @@
+package com.example.myapplication.data.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.myapplication.common.Constants;
+import com.example.myapplication.common.Resource;
+import com.example.myapplication.common.utils.GeoCell;
+import com.example.myapplication.data.local.WeatherCompactor;
+import com.example.myapplication.data.local.WeatherDatabase;
+import com.example.myapplication.data.local.WeatherEntity;
+import com.example.myapplication.data.local.WeatherWriteBuffer;
+import com.example.myapplication.data.model.WeatherResponse;
+import com.example.myapplication.data.model.adapter.WeatherTypeAdapters;
+import com.example.myapplication.data.network.ApiService;
+import com.example.myapplication.data.network.CallCoalescer;
+import com.example.myapplication.data.network.CallRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * getCurrentWeatherSync against a slow or failing server: the deadline bounds the wait,
+ * and a stale row stands in for a fetch that did not make it in time.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class WeatherRepositorySyncTest {
+
+    private static final double LAT = 23.26;
+    private static final double LON = 77.41;
+    private static final String BODY = "{\"id\":1275841,\"name\":\"Bhopal\"," +
+            "\"coord\":{\"lat\":23.26,\"lon\":77.41},\"dt\":1750000000,\"timezone\":19800," +
+            "\"main\":{\"temp\":31.2,\"pressure\":1008,\"humidity\":62}," +
+            "\"weather\":[{\"id\":800,\"main\":\"Clear\",\"description\":\"clear sky\",\"icon\":\"01d\"}]}";
+    private static final long DEADLINE_MS = 300;
+
+    private MockWebServer server;
+    private WeatherDatabase database;
+    private ScheduledExecutorService timer;
+    private WeatherRepositoryImpl repository;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, WeatherDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        timer = Executors.newSingleThreadScheduledExecutor();
+        WeatherWriteBuffer writeBuffer = new WeatherWriteBuffer(database.weatherDao(), Runnable::run, timer, 60_000, 100);
+
+        // Callbacks on OkHttp's threads, the test thread blocks like the worker does
+        ApiService apiService = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .callbackExecutor(Runnable::run)
+                .addConverterFactory(GsonConverterFactory.create(WeatherTypeAdapters.gson()))
+                .build()
+                .create(ApiService.class);
+
+        repository = new WeatherRepositoryImpl(
+                apiService,
+                database,
+                database.weatherDao(),
+                database.forecastDao(),
+                database.syncStateDao(),
+                writeBuffer,
+                new WeatherCompactor(database,
+                        context.getSharedPreferences(Constants.COMPACTION_PREFS_NAME, Context.MODE_PRIVATE),
+                        Constants.RAW_HISTORY_RETENTION_DAYS,
+                        Constants.HOURLY_HISTORY_RETENTION_DAYS, Constants.COMPACTION_BATCH_SIZE),
+                new WeatherMemoryCache(Constants.WEATHER_MEMORY_CACHE_TTL_MS, Constants.WEATHER_MEMORY_CACHE_MAX_ENTRIES),
+                new CallCoalescer<>(),
+                new CallRegistry(),
+                Runnable::run,
+                Runnable::run);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        timer.shutdownNow();
+        database.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void responseWithinDeadline_isSuccess() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY));
+
+        Resource<WeatherResponse> result = repository.getCurrentWeatherSync(LAT, LON,
+                System.currentTimeMillis() + 5_000);
+
+        assertTrue(result.isSuccess());
+        assertEquals("Bhopal", result.getData().name);
+    }
+
+    @Test
+    public void slowResponse_noCachedRow_timesOutAtDeadline() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY).setHeadersDelay(5, TimeUnit.SECONDS));
+
+        long start = System.currentTimeMillis();
+        try {
+            repository.getCurrentWeatherSync(LAT, LON, start + DEADLINE_MS);
+            fail("Expected the deadline to pass");
+        } catch (TimeoutException expected) {
+            // Gave up near the deadline rather than waiting for the server
+            assertTrue(System.currentTimeMillis() - start < 3_000);
+        }
+    }
+
+    @Test
+    public void slowResponse_staleRow_returnsStale() throws Exception {
+        long cachedAt = System.currentTimeMillis() - 2 * Constants.CACHE_FRESHNESS_WINDOW_MS;
+        database.weatherDao().insertWeatherData(row(cachedAt));
+        server.enqueue(new MockResponse().setBody(BODY).setHeadersDelay(5, TimeUnit.SECONDS));
+
+        Resource<WeatherResponse> result = repository.getCurrentWeatherSync(LAT, LON,
+                System.currentTimeMillis() + DEADLINE_MS);
+
+        assertTrue(result.isStale());
+        assertEquals("Bhopal (cached)", result.getData().name);
+        assertTrue(result.getDataAgeMillis() >= 2 * Constants.CACHE_FRESHNESS_WINDOW_MS);
+    }
+
+    @Test
+    public void clientError_staleRow_isThrown() throws Exception {
+        database.weatherDao().insertWeatherData(row(System.currentTimeMillis() - 2 * Constants.CACHE_FRESHNESS_WINDOW_MS));
+        server.enqueue(new MockResponse().setResponseCode(401));
+
+        try {
+            repository.getCurrentWeatherSync(LAT, LON, System.currentTimeMillis() + 5_000);
+            fail("A rejected key must not be hidden behind stale data");
+        } catch (IOException expected) {
+        }
+    }
+
+    private static WeatherEntity row(long cachedAt) {
+        WeatherEntity entity = new WeatherEntity();
+        entity.name = "Bhopal (cached)";
+        entity.latitude = LAT;
+        entity.longitude = LON;
+        entity.cell = GeoCell.of(LAT, LON);
+        entity.timezone = 19800;
+        entity.cachedAt = cachedAt;
+        entity.dt = cachedAt / 1000;
+        return entity;
+    }
+}
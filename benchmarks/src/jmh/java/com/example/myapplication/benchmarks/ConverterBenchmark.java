@@ -0,0 +1,50 @@
+package com.example.myapplication.benchmarks;
+
+import com.example.myapplication.data.local.converter.WeatherTypeConverter;
+import com.example.myapplication.data.model.Main;
+import com.example.myapplication.data.model.Sys;
+import com.example.myapplication.data.model.Weather;
+import com.example.myapplication.data.model.WeatherResponse;
+import com.example.myapplication.data.model.Wind;
+import com.example.myapplication.data.model.adapter.WeatherTypeAdapters;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * WeatherTypeConverter encode + decode round trips, one per converted type.
+ */
+@State(Scope.Benchmark)
+public class ConverterBenchmark {
+
+    private WeatherResponse response;
+
+    @Setup
+    public void setUp() {
+        response = WeatherTypeAdapters.gson().fromJson(SampleData.WEATHER_RESPONSE_JSON, WeatherResponse.class);
+    }
+
+    @Benchmark
+    public Main mainRoundTrip() {
+        return WeatherTypeConverter.toMain(WeatherTypeConverter.fromMain(response.main));
+    }
+
+    @Benchmark
+    public List<Weather> weatherListRoundTrip() {
+        return WeatherTypeConverter.toWeatherList(WeatherTypeConverter.fromWeatherList(response.weather));
+    }
+
+    @Benchmark
+    public Wind windRoundTrip() {
+        return WeatherTypeConverter.toWind(WeatherTypeConverter.fromWind(response.wind));
+    }
+
+    @Benchmark
+    public Sys sysRoundTrip() {
+        return WeatherTypeConverter.toSys(WeatherTypeConverter.fromSys(response.sys));
+    }
+}
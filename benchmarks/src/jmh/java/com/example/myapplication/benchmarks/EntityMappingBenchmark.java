@@ -0,0 +1,44 @@
+package com.example.myapplication.benchmarks;
+
+import com.example.myapplication.data.local.WeatherEntity;
+import com.example.myapplication.data.model.WeatherResponse;
+import com.example.myapplication.data.model.adapter.WeatherTypeAdapters;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Mapping between the API model and the flattened Room row, done on every
+ * network response and every cache read.
+ */
+@State(Scope.Benchmark)
+public class EntityMappingBenchmark {
+
+    private WeatherResponse response;
+    private WeatherEntity entity;
+
+    @Setup
+    public void setUp() {
+        response = WeatherTypeAdapters.gson().fromJson(SampleData.WEATHER_RESPONSE_JSON, WeatherResponse.class);
+        entity = new WeatherEntity(response);
+    }
+
+    @Benchmark
+    public WeatherEntity toEntity() {
+        return new WeatherEntity(response);
+    }
+
+    @Benchmark
+    public WeatherResponse toWeatherResponse() {
+        return entity.toWeatherResponse();
+    }
+
+    // Network body to row, the full write path minus the database
+    @Benchmark
+    public WeatherEntity parseToEntity() {
+        return new WeatherEntity(
+                WeatherTypeAdapters.gson().fromJson(SampleData.WEATHER_RESPONSE_JSON, WeatherResponse.class));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.myapplication.benchmarks;
+
+import com.example.myapplication.data.model.WeatherResponse;
+import com.example.myapplication.data.model.adapter.WeatherTypeAdapters;
+import com.example.myapplication.presentation.mainActivity.ForecastFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The text WeatherForecastAdapter builds for each bound row.
+ */
+@State(Scope.Benchmark)
+public class ForecastFormatterBenchmark {
+
+    // 0-6 hit the relative labels, 7 falls through to the weekday format
+    @Param({"0", "7"})
+    public int position;
+
+    private WeatherResponse response;
+
+    @Setup
+    public void setUp() {
+        response = WeatherTypeAdapters.gson().fromJson(SampleData.WEATHER_RESPONSE_JSON, WeatherResponse.class);
+    }
+
+    @Benchmark
+    public String formatDate() {
+        return ForecastFormatter.formatDate(response.dt * 1000);
+    }
+
+    @Benchmark
+    public String formatTemperature() {
+        return ForecastFormatter.formatTemperature(response.main);
+    }
+
+    @Benchmark
+    public String dayLabel() {
+        return ForecastFormatter.getDayLabel(position);
+    }
+
+    // Everything one onBindViewHolder call formats
+    @Benchmark
+    public void bindRow(Blackhole blackhole) {
+        blackhole.consume(ForecastFormatter.formatDate(response.dt * 1000));
+        blackhole.consume(ForecastFormatter.getDayLabel(position));
+        blackhole.consume(ForecastFormatter.formatTemperature(response.main));
+    }
+}
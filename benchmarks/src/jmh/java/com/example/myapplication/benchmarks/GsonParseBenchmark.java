@@ -0,0 +1,49 @@
+package com.example.myapplication.benchmarks;
+
+import com.example.myapplication.data.model.WeatherResponse;
+import com.example.myapplication.data.model.adapter.WeatherTypeAdapters;
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Reflective Gson vs the streaming adapters for one /weather response.
+ * Compare ops/s and gc.alloc.rate.norm (bytes per parse).
+ */
+@State(Scope.Benchmark)
+public class GsonParseBenchmark {
+
+    private Gson reflectiveGson;
+    private Gson streamingGson;
+    private WeatherResponse response;
+
+    @Setup
+    public void setUp() {
+        reflectiveGson = new Gson();
+        streamingGson = WeatherTypeAdapters.gson();
+        response = streamingGson.fromJson(SampleData.WEATHER_RESPONSE_JSON, WeatherResponse.class);
+    }
+
+    @Benchmark
+    public WeatherResponse parseReflective() {
+        return reflectiveGson.fromJson(SampleData.WEATHER_RESPONSE_JSON, WeatherResponse.class);
+    }
+
+    @Benchmark
+    public WeatherResponse parseStreaming() {
+        return streamingGson.fromJson(SampleData.WEATHER_RESPONSE_JSON, WeatherResponse.class);
+    }
+
+    @Benchmark
+    public String serializeReflective() {
+        return reflectiveGson.toJson(response);
+    }
+
+    @Benchmark
+    public String serializeStreaming() {
+        return streamingGson.toJson(response);
+    }
+}
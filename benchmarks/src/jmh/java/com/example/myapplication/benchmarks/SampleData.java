@@ -0,0 +1,29 @@
+package com.example.myapplication.benchmarks;
+
+/**
+ * A captured /weather response, including fields the app does not map
+ * (gust, sys.message, rain) so the unknown-field skip path is exercised too.
+ */
+final class SampleData {
+
+    static final String WEATHER_RESPONSE_JSON = "{" +
+            "\"coord\":{\"lon\":77.2167,\"lat\":28.6667}," +
+            "\"weather\":[" +
+            "{\"id\":721,\"main\":\"Haze\",\"description\":\"haze\",\"icon\":\"50d\"}," +
+            "{\"id\":500,\"main\":\"Rain\",\"description\":\"light rain\",\"icon\":\"10d\"}]," +
+            "\"base\":\"stations\"," +
+            "\"main\":{\"temp\":31.05,\"feels_like\":35.72,\"temp_min\":31.05,\"temp_max\":31.05," +
+            "\"pressure\":1004,\"humidity\":62,\"sea_level\":1004,\"grnd_level\":979}," +
+            "\"visibility\":3000," +
+            "\"wind\":{\"speed\":2.57,\"deg\":90,\"gust\":4.12}," +
+            "\"rain\":{\"1h\":0.25}," +
+            "\"clouds\":{\"all\":40}," +
+            "\"dt\":1751532000," +
+            "\"sys\":{\"type\":1,\"id\":9165,\"country\":\"IN\",\"sunrise\":1751500812,\"sunset\":1751550983,\"message\":0}," +
+            "\"timezone\":19800," +
+            "\"id\":1273294," +
+            "\"name\":\"Delhi\"," +
+            "\"cod\":200}";
+
+    private SampleData() {}
+}